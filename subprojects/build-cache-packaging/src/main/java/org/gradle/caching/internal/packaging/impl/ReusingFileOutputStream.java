@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import org.apache.commons.io.IOUtils;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes content to an existing file, leaving the file untouched as long as the written bytes match its current content.
+ *
+ * Once the content differs, the content is written to a temporary file next to the existing one, which replaces it on close.
+ * The existing file is never modified in place, so processes which have it open or mapped and hard links to it keep seeing the old content.
+ */
+class ReusingFileOutputStream extends OutputStream {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final File file;
+    private final InputStream existingContent;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    @Nullable
+    private File tempFile;
+    @Nullable
+    private OutputStream output;
+    private long position;
+
+    public ReusingFileOutputStream(File file) throws IOException {
+        this.file = file;
+        this.existingContent = new FileInputStream(file);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (output == null && length > 0) {
+            int chunk = Math.min(length, BUFFER_SIZE);
+            int read = IOUtils.read(existingContent, buffer, 0, chunk);
+            int matching = 0;
+            while (matching < read && buffer[matching] == bytes[offset + matching]) {
+                matching++;
+            }
+            position += matching;
+            offset += matching;
+            length -= matching;
+            if (matching < chunk) {
+                startWriting();
+            }
+        }
+        if (length > 0) {
+            output.write(bytes, offset, length);
+        }
+    }
+
+    private void startWriting() throws IOException {
+        existingContent.close();
+        // createTempFile needs a prefix of at least three characters
+        tempFile = File.createTempFile(".tmp-" + file.getName(), null, file.getParentFile());
+        output = new FileOutputStream(tempFile);
+        // Copy the part of the existing content which matched
+        try (InputStream matchingContent = new FileInputStream(file)) {
+            IOUtils.copyLarge(matchingContent, output, 0, position);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (output == null && existingContent.read() != -1) {
+                // The existing file is longer than the new content
+                startWriting();
+            }
+        } finally {
+            existingContent.close();
+            if (output != null) {
+                output.close();
+            }
+        }
+        if (tempFile != null) {
+            replaceExistingFile(tempFile);
+        }
+    }
+
+    private void replaceExistingFile(File newContent) throws IOException {
+        try {
+            try {
+                Files.move(newContent.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(newContent.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(newContent.toPath());
+        }
+    }
+}
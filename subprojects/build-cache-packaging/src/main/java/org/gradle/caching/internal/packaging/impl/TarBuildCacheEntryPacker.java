@@ -65,8 +65,16 @@
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -247,12 +255,19 @@ private TarArchiveEntry unpackTree(String treeName, TreeType treeType, File tree
             return input.getNextTarEntry();
         }
 
-        fileSystemSupport.ensureDirectoryForTree(treeType, treeRoot);
+        // Existing outputs are reconciled with the cached ones instead of being removed,
+        // so files which already have the cached content don't need to be written again.
+        boolean reuseExistingRoot = treeType == TreeType.FILE
+            ? Files.isRegularFile(treeRoot.toPath(), LinkOption.NOFOLLOW_LINKS)
+            : Files.isDirectory(treeRoot.toPath(), LinkOption.NOFOLLOW_LINKS);
+        if (!reuseExistingRoot) {
+            fileSystemSupport.ensureDirectoryForTree(treeType, treeRoot);
+        }
         if (treeType == TreeType.FILE) {
             if (isDirEntry) {
                 throw new IllegalStateException("Should be a file: " + treeName);
             }
-            RegularFileSnapshot fileSnapshot = unpackFile(input, rootEntry, treeRoot, treeRoot.getName());
+            RegularFileSnapshot fileSnapshot = unpackFile(input, rootEntry, treeRoot, treeRoot.getName(), reuseExistingRoot);
             snapshots.put(treeName, fileSnapshot);
             return input.getNextTarEntry();
         }
@@ -262,56 +277,140 @@ private TarArchiveEntry unpackTree(String treeName, TreeType treeType, File tree
         }
         chmodUnpackedFile(rootEntry, treeRoot);
 
-        return unpackDirectoryTree(input, rootEntry, snapshots, entries, treeRoot, treeName);
+        return unpackDirectoryTree(input, rootEntry, snapshots, entries, treeRoot, treeName, reuseExistingRoot);
     }
 
-    private RegularFileSnapshot unpackFile(TarArchiveInputStream input, TarArchiveEntry entry, File file, String fileName) throws IOException {
-        try (CountingOutputStream output = new CountingOutputStream(new FileOutputStream(file))) {
-            HashCode hash = streamHasher.hashCopy(input, output);
-            chmodUnpackedFile(entry, file);
-            String internedAbsolutePath = stringInterner.intern(file.getAbsolutePath());
-            String internedFileName = stringInterner.intern(fileName);
-            return new RegularFileSnapshot(internedAbsolutePath, internedFileName, hash, DefaultFileMetadata.file(output.getCount(), file.lastModified(), DIRECT));
+    private RegularFileSnapshot unpackFile(TarArchiveInputStream input, TarArchiveEntry entry, File file, String fileName, boolean existingFile) throws IOException {
+        boolean reuseExistingFile = existingFile && file.length() == entry.getSize();
+        if (existingFile && !reuseExistingFile) {
+            // Never truncate an existing file, it may still be open or linked elsewhere
+            fileSystemSupport.ensureFileIsMissing(file);
+        }
+        OutputStream fileOutput = reuseExistingFile
+            ? new ReusingFileOutputStream(file)
+            : new FileOutputStream(file);
+        HashCode hash;
+        long size;
+        try (CountingOutputStream output = new CountingOutputStream(fileOutput)) {
+            hash = streamHasher.hashCopy(input, output);
+            size = output.getCount();
         }
+        chmodUnpackedFile(entry, file);
+        String internedAbsolutePath = stringInterner.intern(file.getAbsolutePath());
+        String internedFileName = stringInterner.intern(fileName);
+        return new RegularFileSnapshot(internedAbsolutePath, internedFileName, hash, DefaultFileMetadata.file(size, file.lastModified(), DIRECT));
     }
 
     @Nullable
-    private TarArchiveEntry unpackDirectoryTree(TarArchiveInputStream input, TarArchiveEntry rootEntry, Map<String, FileSystemLocationSnapshot> snapshots, AtomicLong entries, File treeRoot, String treeName) throws IOException {
+    private TarArchiveEntry unpackDirectoryTree(TarArchiveInputStream input, TarArchiveEntry rootEntry, Map<String, FileSystemLocationSnapshot> snapshots, AtomicLong entries, File treeRoot, String treeName, boolean existingRoot) throws IOException {
         RelativePathParser parser = new RelativePathParser(rootEntry.getName());
 
         DirectorySnapshotBuilder builder = MerkleDirectorySnapshotBuilder.noSortingRequired();
         builder.enterDirectory(DIRECT, stringInterner.intern(treeRoot.getAbsolutePath()), stringInterner.intern(treeRoot.getName()), INCLUDE_EMPTY_DIRS);
+        Deque<ExistingDirectory> existingDirectories = new ArrayDeque<>();
+        existingDirectories.push(new ExistingDirectory(treeRoot, existingRoot));
+        Runnable leaveDirectory = () -> {
+            builder.leaveDirectory();
+            existingDirectories.pop().removeUnclaimedEntries();
+        };
 
         TarArchiveEntry entry;
 
         while ((entry = input.getNextTarEntry()) != null) {
             boolean isDir = entry.isDirectory();
-            boolean outsideOfRoot = parser.nextPath(entry.getName(), isDir, builder::leaveDirectory);
+            boolean outsideOfRoot = parser.nextPath(entry.getName(), isDir, leaveDirectory);
             if (outsideOfRoot) {
                 break;
             }
             entries.incrementAndGet();
 
             File file = new File(treeRoot, parser.getRelativePath());
+            boolean exists = existingDirectories.element().claim(parser.getName());
             if (isDir) {
-                FileUtils.forceMkdir(file);
+                boolean existingDirectory = exists && Files.isDirectory(file.toPath(), LinkOption.NOFOLLOW_LINKS);
+                if (!existingDirectory) {
+                    if (exists) {
+                        fileSystemSupport.ensureFileIsMissing(file);
+                    }
+                    FileUtils.forceMkdir(file);
+                }
+                existingDirectories.push(new ExistingDirectory(file, existingDirectory));
                 chmodUnpackedFile(entry, file);
                 String internedAbsolutePath = stringInterner.intern(file.getAbsolutePath());
                 String internedName = stringInterner.intern(parser.getName());
                 builder.enterDirectory(DIRECT, internedAbsolutePath, internedName, INCLUDE_EMPTY_DIRS);
             } else {
-                RegularFileSnapshot fileSnapshot = unpackFile(input, entry, file, parser.getName());
+                boolean existingFile = exists && Files.isRegularFile(file.toPath(), LinkOption.NOFOLLOW_LINKS);
+                if (exists && !existingFile) {
+                    fileSystemSupport.ensureFileIsMissing(file);
+                }
+                RegularFileSnapshot fileSnapshot = unpackFile(input, entry, file, parser.getName(), existingFile);
                 builder.visitLeafElement(fileSnapshot);
             }
         }
 
-        parser.exitToRoot(builder::leaveDirectory);
-        builder.leaveDirectory();
+        parser.exitToRoot(leaveDirectory);
+        leaveDirectory.run();
 
         snapshots.put(treeName, builder.getResult());
         return entry;
     }
 
+    /**
+     * Tracks the entries of a directory which existed before unpacking, so the ones not part of the cached output can be removed.
+     */
+    private class ExistingDirectory {
+        private final File directory;
+        private final Set<String> unclaimedEntries;
+
+        public ExistingDirectory(File directory, boolean listEntries) {
+            this.directory = directory;
+            this.unclaimedEntries = new HashSet<>();
+            if (listEntries) {
+                String[] names = directory.list();
+                if (names == null) {
+                    throw new UncheckedIOException(new IOException("Could not list contents of directory '" + directory + "'."));
+                }
+                Collections.addAll(unclaimedEntries, names);
+            }
+        }
+
+        /**
+         * Returns whether an entry with exactly the given name existed before unpacking.
+         */
+        public boolean claim(String name) throws IOException {
+            if (unclaimedEntries.isEmpty()) {
+                return false;
+            }
+            if (unclaimedEntries.remove(name)) {
+                return true;
+            }
+            File file = new File(directory, name);
+            if (Files.exists(file.toPath(), LinkOption.NOFOLLOW_LINKS)) {
+                // On a case-insensitive file system the entry is occupied by a name differing only in case
+                Iterator<String> iterator = unclaimedEntries.iterator();
+                while (iterator.hasNext()) {
+                    String existingName = iterator.next();
+                    if (existingName.equalsIgnoreCase(name)) {
+                        iterator.remove();
+                        fileSystemSupport.ensureFileIsMissing(new File(directory, existingName));
+                    }
+                }
+            }
+            return false;
+        }
+
+        public void removeUnclaimedEntries() {
+            try {
+                for (String name : unclaimedEntries) {
+                    fileSystemSupport.ensureFileIsMissing(new File(directory, name));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
     private void chmodUnpackedFile(TarArchiveEntry entry, File file) {
         filePermissionAccess.chmod(file, entry.getMode() & UnixPermissions.PERM_MASK);
     }
@@ -22,6 +22,8 @@ import org.gradle.internal.nativeintegration.filesystem.FileSystem
 import org.gradle.test.precondition.Requires
 import org.gradle.test.preconditions.UnitTestPreconditions
 
+import java.nio.file.Files
+
 import static org.gradle.internal.file.TreeType.DIRECTORY
 import static org.gradle.internal.file.TreeType.FILE
 
@@ -237,4 +239,79 @@ class TarBuildCacheEntryPackerTest extends AbstractTarBuildCacheEntryPackerSpec
         then:
         targetDir.assertIsEmptyDir()
     }
+
+    def "keeps unchanged files and removes stale entries when unpacking over existing outputs"() {
+        def sourceDir = temporaryFolder.file("source").createDir()
+        sourceDir.file("unchanged.txt") << "unchanged"
+        sourceDir.file("changed.txt") << "new content"
+        sourceDir.file("subdir/data.txt") << "data"
+        sourceDir.file("replaced").createDir().file("nested.txt") << "nested"
+        def targetDir = temporaryFolder.file("target").createDir()
+        def unchangedFile = targetDir.file("unchanged.txt") << "unchanged"
+        unchangedFile.lastModified = unchangedFile.lastModified() - 10_000
+        def unchangedTimestamp = unchangedFile.lastModified()
+        targetDir.file("changed.txt") << "old content"
+        targetDir.file("subdir/stale.txt") << "stale"
+        targetDir.file("replaced") << "was a file"
+        targetDir.file("stale-dir/stale.txt") << "stale"
+        def output = new ByteArrayOutputStream()
+        pack output, prop(DIRECTORY, sourceDir)
+
+        when:
+        def input = new ByteArrayInputStream(output.toByteArray())
+        def result = unpack input, prop(DIRECTORY, targetDir)
+
+        then:
+        result.entries == 8
+        unchangedFile.text == "unchanged"
+        unchangedFile.lastModified() == unchangedTimestamp
+        targetDir.file("changed.txt").text == "new content"
+        targetDir.file("subdir/data.txt").text == "data"
+        targetDir.file("replaced/nested.txt").text == "nested"
+        targetDir.assertHasDescendants("unchanged.txt", "changed.txt", "subdir/data.txt", "replaced/nested.txt")
+        targetDir.file("stale-dir").assertDoesNotExist()
+    }
+
+    def "replaces changed files instead of modifying them in place when unpacking over existing outputs"() {
+        def sourceDir = temporaryFolder.file("source").createDir()
+        sourceDir.file("same-length.txt") << "new content"
+        sourceDir.file("other-length.txt") << "much longer new content"
+        def targetDir = temporaryFolder.file("target").createDir()
+        def sameLength = targetDir.file("same-length.txt") << "old content"
+        def otherLength = targetDir.file("other-length.txt") << "old content"
+        def sameLengthLink = temporaryFolder.file("same-length-link.txt")
+        def otherLengthLink = temporaryFolder.file("other-length-link.txt")
+        Files.createLink(sameLengthLink.toPath(), sameLength.toPath())
+        Files.createLink(otherLengthLink.toPath(), otherLength.toPath())
+        def output = new ByteArrayOutputStream()
+        pack output, prop(DIRECTORY, sourceDir)
+
+        when:
+        def input = new ByteArrayInputStream(output.toByteArray())
+        unpack input, prop(DIRECTORY, targetDir)
+
+        then:
+        sameLength.text == "new content"
+        otherLength.text == "much longer new content"
+        sameLengthLink.text == "old content"
+        otherLengthLink.text == "old content"
+        targetDir.assertHasDescendants("same-length.txt", "other-length.txt")
+    }
+
+    def "replaces changed files with single character names when unpacking over existing outputs"() {
+        def sourceDir = temporaryFolder.file("source").createDir()
+        sourceDir.file("a") << "new"
+        def targetDir = temporaryFolder.file("target").createDir()
+        targetDir.file("a") << "old"
+        def output = new ByteArrayOutputStream()
+        pack output, prop(DIRECTORY, sourceDir)
+
+        when:
+        def input = new ByteArrayInputStream(output.toByteArray())
+        unpack input, prop(DIRECTORY, targetDir)
+
+        then:
+        targetDir.file("a").text == "new"
+        targetDir.assertHasDescendants("a")
+    }
 }
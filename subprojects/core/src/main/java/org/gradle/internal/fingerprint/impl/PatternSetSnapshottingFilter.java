@@ -16,6 +16,8 @@
 
 package org.gradle.internal.fingerprint.impl;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import org.gradle.api.Describable;
 import org.gradle.api.file.FileTreeElement;
@@ -24,6 +26,8 @@
 import org.gradle.api.internal.file.DefaultFilePermissions;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.api.tasks.util.internal.IntersectionPatternSet;
+import org.gradle.api.tasks.util.internal.PatternSets;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.file.Stat;
@@ -31,6 +35,7 @@
 import org.gradle.internal.snapshot.SnapshottingFilter;
 import org.gradle.util.internal.GFileUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -65,6 +70,37 @@ public DirectoryWalkerPredicate getAsDirectoryWalkerPredicate() {
             spec.isSatisfiedBy(new PathBackedFileTreeElement(path, name, isDirectory, relativePath, stat));
     }
 
+    @Nullable
+    @Override
+    public Object getCacheKey() {
+        return cacheKeyFor(patternSet);
+    }
+
+    /**
+     * Only patterns identify the filter, since include and exclude specs can look at anything about a file.
+     */
+    @Nullable
+    private static Object cacheKeyFor(PatternSet patternSet) {
+        if (!patternSet.getIncludeSpecs().isEmpty() || !patternSet.getExcludeSpecs().isEmpty()) {
+            return null;
+        }
+        ImmutableList.Builder<Object> key = ImmutableList.builder()
+            .add(ImmutableSet.copyOf(patternSet.getIncludes()))
+            .add(ImmutableSet.copyOf(patternSet.getExcludes()))
+            .add(patternSet.isCaseSensitive());
+        if (patternSet instanceof IntersectionPatternSet) {
+            Object otherKey = cacheKeyFor(((IntersectionPatternSet) patternSet).getOther());
+            if (otherKey == null) {
+                return null;
+            }
+            key.add(otherKey);
+        } else if (patternSet.getClass() != PatternSet.class && patternSet.getClass().getEnclosingClass() != PatternSets.class) {
+            // Unknown subclasses may filter differently
+            return null;
+        }
+        return key.build();
+    }
+
     /**
      * Adapts a {@link FileSystemLocationSnapshot} to the {@link FileTreeElement} interface, e.g. to allow
      * passing it to a {@link org.gradle.api.tasks.util.PatternSet} for filtering.
@@ -38,6 +38,7 @@
 import org.gradle.internal.classloader.ClassLoaderFactory;
 import org.gradle.internal.classloader.DefaultClassLoaderFactory;
 import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.concurrent.DefaultParallelismConfiguration;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.file.Deleter;
@@ -118,8 +119,10 @@ StreamHasher createStreamHasher() {
         return new DefaultStreamHasher();
     }
 
-    Deleter createDeleter(Clock clock, FileSystem fileSystem, OperatingSystem os) {
-        return new DefaultDeleter(clock::getCurrentTime, fileSystem::isSymlink, os.isWindows());
+    Deleter createDeleter(Clock clock, FileSystem fileSystem, OperatingSystem os, ExecutorFactory executorFactory) {
+        // The deleter outlives build sessions, so it is sized by the default max workers rather than the configured value
+        int maxWorkers = DefaultParallelismConfiguration.DEFAULT.getMaxWorkerCount();
+        return new DefaultDeleter(clock::getCurrentTime, fileSystem::isSymlink, os.isWindows(), executorFactory.create("File deletion", maxWorkers), maxWorkers);
     }
 
     PropertyFactory createPropertyFactory(PropertyHost propertyHost) {
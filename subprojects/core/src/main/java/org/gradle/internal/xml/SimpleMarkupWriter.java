@@ -162,20 +162,64 @@ public SimpleMarkupWriter endElement() throws IOException {
 
     private void writeCDATA(char[] cdata, int offset, int count) throws IOException {
         int end = offset + count;
-        for (int i = offset; i < end;) {
-            int codePoint = Character.codePointAt(cdata, i);
-            i += Character.charCount(codePoint);
-            writeCDATA(codePoint);
+        int i = offset;
+        while (i < end) {
+            // Write runs of characters which need no escaping in one go
+            int runEnd = i;
+            while (runEnd < end && isPlainCDATACharacter(cdata[runEnd])) {
+                runEnd++;
+            }
+            if (runEnd > i) {
+                output.write(cdata, i, runEnd - i);
+                squareBrackets = 0;
+                i = runEnd;
+            } else {
+                int codePoint = Character.codePointAt(cdata, i, end);
+                i += Character.charCount(codePoint);
+                writeCDATA(codePoint);
+            }
         }
     }
 
     private void writeCDATA(CharSequence cdata) throws IOException {
         int len = cdata.length();
-        for (int i = 0; i < len;) {
-            int codePoint = Character.codePointAt(cdata, i);
-            i += Character.charCount(codePoint);
-            writeCDATA(codePoint);
+        int i = 0;
+        while (i < len) {
+            int runEnd = i;
+            while (runEnd < len && isPlainCDATACharacter(cdata.charAt(runEnd))) {
+                runEnd++;
+            }
+            if (runEnd > i) {
+                output.append(cdata, i, runEnd);
+                squareBrackets = 0;
+                i = runEnd;
+            } else {
+                int codePoint = Character.codePointAt(cdata, i);
+                i += Character.charCount(codePoint);
+                writeCDATA(codePoint);
+            }
+        }
+    }
+
+    /**
+     * Returns true for characters which are written as is, both in CDATA and in text, and which do not affect the detection of the CDATA end marker.
+     */
+    private static boolean isPlainCharacter(char ch) {
+        if (ch >= 0x20 && ch < 0x7F) {
+            return true;
         }
+        if (ch == 0x9 || ch == 0xA || ch == 0xD) {
+            return true;
+        }
+        return ch >= 0xA0 && ch < 0xD800 || ch >= 0xE000 && ch <= 0xFFFD;
+    }
+
+    private static boolean isPlainCDATACharacter(char ch) {
+        return ch != ']' && ch != '>' && isPlainCharacter(ch);
+    }
+
+    private static boolean isPlainTextCharacter(char ch) {
+        return ch != '<' && ch != '>' && ch != '&' && ch != '"' && isPlainCharacter(ch);
     }
 
     private void writeCDATA(int ch) throws IOException {
@@ -295,10 +339,20 @@ protected void writeRaw(String message) throws IOException {
 
     private void writeXmlEncoded(char[] message, int offset, int count) throws IOException {
         int end = offset + count;
-        for (int i = offset; i < end;) {
-            int codePoint = Character.codePointAt(message, i);
-            i += Character.charCount(codePoint);
-            writeXmlEncoded(codePoint);
+        int i = offset;
+        while (i < end) {
+            int runEnd = i;
+            while (runEnd < end && isPlainTextCharacter(message[runEnd])) {
+                runEnd++;
+            }
+            if (runEnd > i) {
+                output.write(message, i, runEnd - i);
+                i = runEnd;
+            } else {
+                int codePoint = Character.codePointAt(message, i, end);
+                i += Character.charCount(codePoint);
+                writeXmlEncoded(codePoint);
+            }
         }
     }
 
@@ -327,10 +381,20 @@ private void writeXmlAttributeEncoded(int ch) throws IOException {
     private void writeXmlEncoded(CharSequence message) throws IOException {
         assert message != null;
         int len = message.length();
-        for (int i = 0; i < len;) {
-            int codePoint = Character.codePointAt(message, i);
-            i += Character.charCount(codePoint);
-            writeXmlEncoded(codePoint);
+        int i = 0;
+        while (i < len) {
+            int runEnd = i;
+            while (runEnd < len && isPlainTextCharacter(message.charAt(runEnd))) {
+                runEnd++;
+            }
+            if (runEnd > i) {
+                output.append(message, i, runEnd);
+                i = runEnd;
+            } else {
+                int codePoint = Character.codePointAt(message, i);
+                i += Character.charCount(codePoint);
+                writeXmlEncoded(codePoint);
+            }
         }
     }
 
@@ -252,6 +252,19 @@ class SimpleXmlWriterSpec extends Specification {
         xml.contains("<root>some &lt;chars&gt; and some <![CDATA[cdata]]></root>")
     }
 
+    def "only encodes the given part of a character array"() {
+        when:
+        writer.startElement("root")
+        writer.characters('<a> & <b>'.toCharArray(), 1, 7)
+        writer.startCDATA()
+        writer.characters('[]]>]]'.toCharArray(), 1, 3)
+        writer.endCDATA()
+        writer.endElement()
+
+        then:
+        xml.contains("<root>a&gt; &amp; &lt;b<![CDATA[]]]]><![CDATA[>]]></root>")
+    }
+
     def "cannot end element when stack is empty"() {
         writer.startElement("root")
         writer.endElement()
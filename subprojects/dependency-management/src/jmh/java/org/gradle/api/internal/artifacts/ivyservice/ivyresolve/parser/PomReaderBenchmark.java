@@ -0,0 +1,132 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.file.TestFiles;
+import org.gradle.internal.resource.local.LocalFileStandInExternalResource;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a POM with the given number of dependencies and a BOM with the given number of managed dependencies.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class PomReaderBenchmark {
+
+    @Param({"5", "50"})
+    int dependencies;
+
+    @Param({"500", "5000"})
+    int managedDependencies;
+
+    private final ImmutableModuleIdentifierFactory moduleIdentifierFactory = new DefaultImmutableModuleIdentifierFactory();
+    private File pomFile;
+    private File bomFile;
+    private LocallyAvailableExternalResource pom;
+    private LocallyAvailableExternalResource bom;
+
+    @Setup(Level.Trial)
+    public void createPoms() throws IOException {
+        pomFile = File.createTempFile("pom-reader-benchmark", ".pom");
+        bomFile = File.createTempFile("pom-reader-benchmark", ".pom");
+        Files.write(pomFile.toPath(), pom("dependencies", dependencies).getBytes(StandardCharsets.UTF_8));
+        Files.write(bomFile.toPath(), pom("dependencyManagement", managedDependencies).getBytes(StandardCharsets.UTF_8));
+        pom = new LocalFileStandInExternalResource(pomFile, TestFiles.fileSystem());
+        bom = new LocalFileStandInExternalResource(bomFile, TestFiles.fileSystem());
+    }
+
+    @TearDown(Level.Trial)
+    public void deletePoms() {
+        pomFile.delete();
+        bomFile.delete();
+    }
+
+    @Benchmark
+    public Object parsePom() throws SAXException {
+        PomReader reader = new PomReader(pom, moduleIdentifierFactory);
+        reader.resolveGAV();
+        return reader.getDependencies();
+    }
+
+    @Benchmark
+    public Object parseBom() throws SAXException {
+        PomReader reader = new PomReader(bom, moduleIdentifierFactory);
+        reader.resolveGAV();
+        return reader.parseDependencyMgt();
+    }
+
+    private static String pom(String section, int count) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        builder.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        builder.append("  <modelVersion>4.0.0</modelVersion>\n");
+        builder.append("  <groupId>org.gradle.benchmark</groupId>\n");
+        builder.append("  <artifactId>").append(section).append("</artifactId>\n");
+        builder.append("  <version>1.0</version>\n");
+        builder.append("  <name>Benchmark &amp; POM with entities&nbsp;</name>\n");
+        builder.append("  <properties>\n");
+        builder.append("    <lib.version>2.1.0</lib.version>\n");
+        builder.append("  </properties>\n");
+        boolean managed = section.equals("dependencyManagement");
+        if (managed) {
+            builder.append("  <dependencyManagement>\n");
+        }
+        builder.append("  <dependencies>\n");
+        for (int i = 0; i < count; i++) {
+            builder.append("    <dependency>\n");
+            builder.append("      <groupId>org.gradle.benchmark.group").append(i % 20).append("</groupId>\n");
+            builder.append("      <artifactId>library-").append(i).append("</artifactId>\n");
+            builder.append("      <version>${lib.version}</version>\n");
+            if (i % 3 == 0) {
+                builder.append("      <exclusions><exclusion><groupId>org.excluded</groupId><artifactId>excluded-").append(i).append("</artifactId></exclusion></exclusions>\n");
+            }
+            builder.append("    </dependency>\n");
+        }
+        builder.append("  </dependencies>\n");
+        if (managed) {
+            builder.append("  </dependencyManagement>\n");
+        }
+        builder.append("</project>\n");
+        return builder.toString();
+    }
+}
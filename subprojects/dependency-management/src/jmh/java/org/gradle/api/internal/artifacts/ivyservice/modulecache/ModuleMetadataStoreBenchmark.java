@@ -0,0 +1,149 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.dependencies.DefaultImmutableVersionConstraint;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DesugaredAttributeContainerSerializer;
+import org.gradle.api.internal.artifacts.repositories.metadata.IvyMutableModuleMetadataFactory;
+import org.gradle.api.internal.artifacts.repositories.metadata.MavenMutableModuleMetadataFactory;
+import org.gradle.internal.component.external.descriptor.MavenScope;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector;
+import org.gradle.internal.component.external.model.PreferJavaRuntimeVariant;
+import org.gradle.internal.component.external.model.maven.MavenDependencyDescriptor;
+import org.gradle.internal.component.external.model.maven.MavenDependencyType;
+import org.gradle.internal.resource.local.DefaultPathKeyFileStore;
+import org.gradle.util.AttributeTestUtil;
+import org.gradle.util.TestUtil;
+import org.gradle.util.internal.SimpleMapInterner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the given number of module descriptors from a {@link ModuleMetadataStore}.
+ *
+ * The cold benchmark reads them the way a fresh daemon does, with an empty string interner, the warm benchmark reuses the interner of a previous read.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class ModuleMetadataStoreBenchmark {
+    private static final String REPOSITORY_ID = "repository";
+
+    @Param({"2000"})
+    int modules;
+
+    @Param({"10"})
+    int dependencies;
+
+    private final ImmutableModuleIdentifierFactory moduleIdentifierFactory = new DefaultImmutableModuleIdentifierFactory();
+    private final List<ModuleComponentAtRepositoryKey> keys = new ArrayList<>();
+    private Path storeDir;
+    private DefaultPathKeyFileStore fileStore;
+    private ModuleMetadataSerializer serializer;
+    private ModuleMetadataStore warmStore;
+
+    @Setup(Level.Trial)
+    public void createStore() throws IOException {
+        storeDir = Files.createTempDirectory("module-metadata-store-benchmark");
+        fileStore = new DefaultPathKeyFileStore(TestUtil.getChecksumService(), storeDir.toFile());
+        PreferJavaRuntimeVariant schema = new PreferJavaRuntimeVariant(TestUtil.objectInstantiator());
+        MavenMutableModuleMetadataFactory mavenMetadataFactory = new MavenMutableModuleMetadataFactory(moduleIdentifierFactory, AttributeTestUtil.attributesFactory(), TestUtil.objectInstantiator(), schema);
+        IvyMutableModuleMetadataFactory ivyMetadataFactory = new IvyMutableModuleMetadataFactory(moduleIdentifierFactory, AttributeTestUtil.attributesFactory(), schema);
+        serializer = new ModuleMetadataSerializer(
+            new DesugaredAttributeContainerSerializer(AttributeTestUtil.attributesFactory(), TestUtil.objectInstantiator()),
+            mavenMetadataFactory,
+            ivyMetadataFactory,
+            new ModuleSourcesSerializer(Collections.emptyMap())
+        );
+
+        ModuleMetadataStore store = newStore();
+        for (int i = 0; i < modules; i++) {
+            ModuleComponentIdentifier id = DefaultModuleComponentIdentifier.newId(module(i), "1." + i);
+            List<MavenDependencyDescriptor> descriptors = new ArrayList<>();
+            for (int j = 1; j <= dependencies; j++) {
+                ModuleIdentifier dependency = module((i + j) % modules);
+                descriptors.add(new MavenDependencyDescriptor(MavenScope.Compile, MavenDependencyType.DEPENDENCY, DefaultModuleComponentSelector.newSelector(dependency, DefaultImmutableVersionConstraint.of("1." + j)), null, ImmutableList.of()));
+            }
+            ModuleComponentAtRepositoryKey key = new ModuleComponentAtRepositoryKey(REPOSITORY_ID, id);
+            store.putModuleDescriptor(key, mavenMetadataFactory.create(id, descriptors).asImmutable());
+            keys.add(key);
+        }
+        warmStore = newStore();
+        for (ModuleComponentAtRepositoryKey key : keys) {
+            warmStore.getModuleDescriptor(key);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteStore() throws IOException {
+        FileUtils.forceDelete(storeDir.toFile());
+    }
+
+    @Benchmark
+    public void readCold(Blackhole blackhole) {
+        readAll(newStore(), blackhole);
+    }
+
+    @Benchmark
+    public void readWarm(Blackhole blackhole) {
+        readAll(warmStore, blackhole);
+    }
+
+    private void readAll(ModuleMetadataStore store, Blackhole blackhole) {
+        for (ModuleComponentAtRepositoryKey key : keys) {
+            blackhole.consume(store.getModuleDescriptor(key));
+        }
+    }
+
+    private ModuleMetadataStore newStore() {
+        return new ModuleMetadataStore(fileStore, serializer, moduleIdentifierFactory, SimpleMapInterner.threadSafe());
+    }
+
+    private ModuleIdentifier module(int i) {
+        return moduleIdentifierFactory.module("org.group" + (i % 50), "module" + i);
+    }
+}
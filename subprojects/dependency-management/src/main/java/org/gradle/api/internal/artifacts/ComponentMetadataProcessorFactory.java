@@ -34,4 +34,11 @@ public interface ComponentMetadataProcessorFactory {
      * @return a {@code ComponentMetadataProcessor}
      */
     ComponentMetadataProcessor createComponentMetadataProcessor(MetadataResolutionContext resolutionContext);
+
+    /**
+     * Whether the processors created by this factory may apply any component metadata rules.
+     */
+    default boolean hasRules() {
+        return true;
+    }
 }
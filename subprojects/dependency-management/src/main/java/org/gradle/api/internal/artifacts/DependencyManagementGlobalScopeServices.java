@@ -39,6 +39,7 @@
 import org.gradle.api.internal.artifacts.transform.InputArtifactDependenciesAnnotationHandler;
 import org.gradle.api.internal.artifacts.transform.TransformActionScheme;
 import org.gradle.api.internal.artifacts.transform.TransformParameterScheme;
+import org.gradle.api.internal.artifacts.verification.verifier.DependencyVerifierCache;
 import org.gradle.api.internal.model.NamedObjectInstantiator;
 import org.gradle.api.internal.tasks.properties.InspectionScheme;
 import org.gradle.api.internal.tasks.properties.InspectionSchemeFactory;
@@ -88,6 +89,10 @@ NotationParser<Object, ComponentSelector> createComponentSelectorFactory(Immutab
             .toComposite();
     }
 
+    DependencyVerifierCache createDependencyVerifierCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+        return new DependencyVerifierCache(cacheFactory);
+    }
+
     VersionParser createVersionParser() {
         return new VersionParser();
     }
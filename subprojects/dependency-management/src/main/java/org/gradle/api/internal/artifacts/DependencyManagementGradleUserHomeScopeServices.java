@@ -40,6 +40,7 @@
 import org.gradle.internal.execution.history.impl.DefaultExecutionHistoryStore;
 import org.gradle.internal.file.FileAccessTimeJournal;
 import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 
 public class DependencyManagementGradleUserHomeScopeServices {
 
@@ -106,6 +107,8 @@ ImmutableTransformWorkspaceServices createTransformWorkspaceServices(
         CrossBuildInMemoryCacheFactory crossBuildInMemoryCacheFactory,
         FileAccessTimeJournal fileAccessTimeJournal,
         ExecutionHistoryStore executionHistoryStore,
+        FileSystem fileSystem,
+        ListenerManager listenerManager,
         CacheConfigurationsInternal cacheConfigurations
     ) {
         return new ImmutableTransformWorkspaceServices(
@@ -116,6 +119,8 @@ ImmutableTransformWorkspaceServices createTransformWorkspaceServices(
             fileAccessTimeJournal,
             executionHistoryStore,
             crossBuildInMemoryCacheFactory.newCacheRetainingDataFromPreviousBuild(Try::isSuccessful),
+            fileSystem,
+            listenerManager,
             cacheConfigurations
         );
     }
@@ -19,7 +19,17 @@
 
 public interface GlobalDependencyResolutionRules {
 
-    ComponentMetadataProcessorFactory NO_OP_FACTORY = resolutionContext -> ComponentMetadataProcessor.NO_OP;
+    ComponentMetadataProcessorFactory NO_OP_FACTORY = new ComponentMetadataProcessorFactory() {
+        @Override
+        public ComponentMetadataProcessor createComponentMetadataProcessor(MetadataResolutionContext resolutionContext) {
+            return ComponentMetadataProcessor.NO_OP;
+        }
+
+        @Override
+        public boolean hasRules() {
+            return false;
+        }
+    };
 
     GlobalDependencyResolutionRules NO_OP = new GlobalDependencyResolutionRules() {
         @Override
@@ -17,7 +17,10 @@
 package org.gradle.api.internal.artifacts;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Lists;
+import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.api.artifacts.VersionConstraint;
 import org.gradle.api.artifacts.component.ModuleComponentSelector;
 import org.gradle.api.capabilities.Capability;
@@ -38,6 +41,9 @@
 import static org.gradle.internal.component.external.model.DefaultModuleComponentSelector.newSelector;
 
 public class ModuleComponentSelectorSerializer implements Serializer<ModuleComponentSelector> {
+    // Most dependencies share a handful of version constraints, so the instances read are shared across all deserialized metadata
+    private static final Interner<VersionConstraint> VERSION_CONSTRAINTS = Interners.newWeakInterner();
+
     private final AttributeContainerSerializer attributeContainerSerializer;
 
     public ModuleComponentSelectorSerializer(AttributeContainerSerializer attributeContainerSerializer) {
@@ -48,10 +54,23 @@ public ModuleComponentSelectorSerializer(AttributeContainerSerializer attributeC
     public ModuleComponentSelector read(Decoder decoder) throws IOException {
         String group = decoder.readString();
         String name = decoder.readString();
+        return readSelector(decoder, DefaultModuleIdentifier.newId(group, name));
+    }
+
+    /**
+     * Reads a selector, using the module identifiers shared by the given factory.
+     */
+    public ModuleComponentSelector read(Decoder decoder, ImmutableModuleIdentifierFactory moduleIdentifierFactory) throws IOException {
+        String group = decoder.readString();
+        String name = decoder.readString();
+        return readSelector(decoder, moduleIdentifierFactory.module(group, name));
+    }
+
+    private ModuleComponentSelector readSelector(Decoder decoder, ModuleIdentifier moduleIdentifier) throws IOException {
         VersionConstraint versionConstraint = readVersionConstraint(decoder);
         ImmutableAttributes attributes = readAttributes(decoder);
         List<Capability> capabilities = readCapabilities(decoder);
-        return newSelector(DefaultModuleIdentifier.newId(group, name), versionConstraint, attributes, capabilities);
+        return newSelector(moduleIdentifier, versionConstraint, attributes, capabilities);
     }
 
     public VersionConstraint readVersionConstraint(Decoder decoder) throws IOException {
@@ -64,7 +83,7 @@ public VersionConstraint readVersionConstraint(Decoder decoder) throws IOExcepti
             rejects.add(decoder.readString());
         }
         String branch = decoder.readNullableString();
-        return new DefaultImmutableVersionConstraint(preferred, required, strictly, rejects, branch);
+        return VERSION_CONSTRAINTS.intern(new DefaultImmutableVersionConstraint(preferred, required, strictly, rejects, branch));
     }
 
     @Override
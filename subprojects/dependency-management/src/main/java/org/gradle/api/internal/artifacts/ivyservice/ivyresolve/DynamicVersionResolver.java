@@ -128,6 +128,15 @@ public void resolve(ModuleDependencyMetadata dependency, VersionSelector version
         }
     }
 
+    /**
+     * Lists the versions of the given module in each repository, without selecting one.
+     */
+    public void listVersions(ModuleDependencyMetadata dependency) {
+        for (ModuleComponentRepository<ModuleComponentGraphResolveState> repository : repositories) {
+            new VersionListResult(dependency, repository).resolve();
+        }
+    }
+
     private void found(BuildableComponentIdResolveResult result, List<RepositoryResolveState> resolveStates, RepositoryChainModuleResolution latestResolved) {
         for (RepositoryResolveState resolveState : resolveStates) {
             resolveState.registerAttempts(result);
@@ -42,10 +42,12 @@
 public class RepositoryChainDependencyToComponentIdResolver implements DependencyToComponentIdResolver {
     private final DynamicVersionResolver dynamicRevisionResolver;
     private final AttributeContainer consumerAttributes;
+    private final ComponentMetadataProcessorFactory componentMetadataProcessorFactory;
 
     public RepositoryChainDependencyToComponentIdResolver(VersionedComponentChooser componentChooser, VersionParser versionParser, AttributeContainer consumerAttributes, ImmutableAttributesFactory attributesFactory, ComponentMetadataProcessorFactory componentMetadataProcessorFactory, ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor, CachePolicy cachePolicy) {
         this.dynamicRevisionResolver = new DynamicVersionResolver(componentChooser, versionParser, attributesFactory, componentMetadataProcessorFactory, componentMetadataSupplierRuleExecutor, cachePolicy);
         this.consumerAttributes = consumerAttributes;
+        this.componentMetadataProcessorFactory = componentMetadataProcessorFactory;
     }
 
     public void add(ModuleComponentRepository<ModuleComponentGraphResolveState> repository) {
@@ -73,6 +75,13 @@ public void resolve(DependencyMetadata dependency, VersionSelector acceptor, @Nu
         }
     }
 
+    @Override
+    public void prefetchVersionListings(DependencyMetadata dependency) {
+        if (dependency.getSelector() instanceof ModuleComponentSelector && !componentMetadataProcessorFactory.hasRules()) {
+            dynamicRevisionResolver.listVersions(toModuleDependencyMetadata(dependency));
+        }
+    }
+
     private ModuleDependencyMetadata toModuleDependencyMetadata(DependencyMetadata dependency) {
         if (dependency instanceof ModuleDependencyMetadata) {
             return (ModuleDependencyMetadata) dependency;
@@ -31,6 +31,7 @@
 import org.gradle.api.internal.artifacts.verification.exceptions.DependencyVerificationException;
 import org.gradle.api.internal.artifacts.verification.signatures.BuildTreeDefinedKeys;
 import org.gradle.api.internal.artifacts.verification.signatures.SignatureVerificationServiceFactory;
+import org.gradle.api.internal.artifacts.verification.verifier.DependencyVerifierCache;
 import org.gradle.api.internal.component.ArtifactType;
 import org.gradle.api.internal.properties.GradleProperties;
 import org.gradle.api.logging.Logger;
@@ -106,7 +107,8 @@ public DependencyVerificationOverride dependencyVerificationOverride(
         DocumentationRegistry documentationRegistry,
         BuildCommencedTimeProvider timeProvider,
         Factory<GradleProperties> gradlePropertiesFactory,
-        FileResourceListener fileResourceListener
+        FileResourceListener fileResourceListener,
+        DependencyVerifierCache verifierCache
     ) {
         List<String> checksums = startParameter.getWriteDependencyVerifications();
         File verificationsFile = DependencyVerificationOverride.dependencyVerificationsFile(gradleDir);
@@ -123,7 +125,7 @@ public DependencyVerificationOverride dependencyVerificationOverride(
                 try {
                     File sessionReportDir = computeReportDirectory(timeProvider);
                     return DisablingVerificationOverride.of(
-                        new ChecksumAndSignatureVerificationOverride(buildOperationExecutor, startParameter.getGradleUserHomeDir(), verificationsFile, keyRing.get(), checksumService, signatureVerificationServiceFactory, startParameter.getDependencyVerificationMode(), documentationRegistry, sessionReportDir, gradlePropertiesFactory, fileResourceListener)
+                        new ChecksumAndSignatureVerificationOverride(buildOperationExecutor, startParameter.getGradleUserHomeDir(), verificationsFile, keyRing.get(), checksumService, signatureVerificationServiceFactory, startParameter.getDependencyVerificationMode(), documentationRegistry, sessionReportDir, gradlePropertiesFactory, fileResourceListener, verifierCache)
                     );
                 } catch (Exception e) {
                     return new FailureVerificationOverride(e);
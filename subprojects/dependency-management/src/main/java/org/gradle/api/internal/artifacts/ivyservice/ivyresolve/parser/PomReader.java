@@ -122,6 +122,17 @@ public InputSource resolveEntity(String publicId, String systemId) {
         }
     };
 
+    /**
+     * Creating a document builder costs about as much as parsing a small POM, so builders are reused by each thread.
+     */
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDERS = ThreadLocal.withInitial(() -> {
+        try {
+            return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    });
+
     private PomParent pomParent = new RootPomParent();
     private final Map<String, String> pomProperties = new HashMap<>();
     private final Map<String, String> effectiveProperties = new HashMap<>();
@@ -235,18 +246,6 @@ public String toString() {
         return projectElement.getOwnerDocument().getDocumentURI();
     }
 
-    private static DocumentBuilder getDocBuilder(EntityResolver entityResolver) {
-        try {
-            DocumentBuilder docBuilder = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
-            if (entityResolver != null) {
-                docBuilder.setEntityResolver(entityResolver);
-            }
-            return docBuilder;
-        } catch (ParserConfigurationException e) {
-            throw UncheckedException.throwAsUncheckedException(e);
-        }
-    }
-
     private static Document parseToDom(InputStream stream, String systemId) throws IOException, SAXException {
         // Set the context classloader the bootstrap classloader, to work around the way that JAXP locates implementation classes
         // This should ensure that the JAXP classes provided by the JVM are used, rather than some other implementation
@@ -254,7 +253,13 @@ private static Document parseToDom(InputStream stream, String systemId) throws I
         Thread.currentThread().setContextClassLoader(ClassLoaderUtils.getPlatformClassLoader());
         try {
             InputStream dtdStream = new AddDTDFilterInputStream(stream);
-            return getDocBuilder(M2_ENTITY_RESOLVER).parse(dtdStream, systemId);
+            DocumentBuilder docBuilder = DOCUMENT_BUILDERS.get();
+            docBuilder.setEntityResolver(M2_ENTITY_RESOLVER);
+            try {
+                return docBuilder.parse(dtdStream, systemId);
+            } finally {
+                docBuilder.reset();
+            }
         } finally {
             Thread.currentThread().setContextClassLoader(original);
         }
@@ -31,16 +31,15 @@
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.report.DependencyVerificationReportWriter;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.report.VerificationReport;
 import org.gradle.api.internal.artifacts.verification.exceptions.DependencyVerificationException;
-import org.gradle.api.internal.artifacts.verification.serializer.DependencyVerificationsXmlReader;
 import org.gradle.api.internal.artifacts.verification.signatures.BuildTreeDefinedKeys;
 import org.gradle.api.internal.artifacts.verification.signatures.SignatureVerificationService;
 import org.gradle.api.internal.artifacts.verification.signatures.SignatureVerificationServiceFactory;
 import org.gradle.api.internal.artifacts.verification.verifier.DependencyVerifier;
+import org.gradle.api.internal.artifacts.verification.verifier.DependencyVerifierCache;
 import org.gradle.api.internal.properties.GradleProperties;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.Factory;
-import org.gradle.internal.UncheckedException;
 import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
 import org.gradle.internal.component.external.model.ModuleComponentGraphResolveState;
 import org.gradle.internal.concurrent.Stoppable;
@@ -53,8 +52,6 @@
 import org.gradle.internal.resource.local.FileResourceListener;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.net.URI;
 import java.util.Collection;
 import java.util.Deque;
@@ -89,19 +86,16 @@ public ChecksumAndSignatureVerificationOverride(
         DocumentationRegistry documentationRegistry,
         File reportsDirectory,
         Factory<GradleProperties> gradlePropertiesFactory,
-        FileResourceListener fileResourceListener
+        FileResourceListener fileResourceListener,
+        DependencyVerifierCache verifierCache
     ) {
         this.buildOperationExecutor = buildOperationExecutor;
         this.checksumService = checksumService;
         this.verificationMode = verificationMode;
         this.fileResourceListener = fileResourceListener;
         try {
-            this.verifier = DependencyVerificationsXmlReader.readFromXml(
-                new FileInputStream(observed(verificationsFile))
-            );
+            this.verifier = verifierCache.readFromXml(observed(verificationsFile), checksumService.sha256(verificationsFile));
             this.reportWriter = new DependencyVerificationReportWriter(gradleUserHome.toPath(), documentationRegistry, verificationsFile, verifier.getSuggestedWriteFlags(), reportsDirectory, gradlePropertiesFactory);
-        } catch (FileNotFoundException e) {
-            throw UncheckedException.throwAsUncheckedException(e);
         } catch (DependencyVerificationException e) {
             throw new DependencyVerificationException("Unable to read dependency verification metadata from " + verificationsFile, e.getCause());
         }
@@ -24,7 +24,6 @@
 import org.gradle.api.artifacts.component.ModuleComponentSelector;
 import org.gradle.api.attributes.AttributeContainer;
 import org.gradle.api.capabilities.Capability;
-import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
 import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
 import org.gradle.api.internal.artifacts.ModuleComponentSelectorSerializer;
 import org.gradle.api.internal.artifacts.ivyservice.NamespaceId;
@@ -473,7 +472,7 @@ private ImmutableAttributes readAttributes() throws IOException {
         private void readVariantDependencies(MutableComponentVariant variant) throws IOException {
             int count = decoder.readSmallInt();
             for (int i = 0; i < count; i++) {
-                ModuleComponentSelector selector = componentSelectorSerializer.read(decoder);
+                ModuleComponentSelector selector = componentSelectorSerializer.read(decoder, moduleIdentifierFactory);
                 String reason = decoder.readNullableString();
                 ImmutableList<ExcludeMetadata> excludes = readVariantDependencyExcludes();
                 boolean endorsing = decoder.readBoolean();
@@ -485,7 +484,7 @@ private void readVariantDependencies(MutableComponentVariant variant) throws IOE
         private void readVariantConstraints(MutableComponentVariant variant) throws IOException {
             int count = decoder.readSmallInt();
             for (int i = 0; i < count; i++) {
-                ModuleComponentSelector selector = componentSelectorSerializer.read(decoder);
+                ModuleComponentSelector selector = componentSelectorSerializer.read(decoder, moduleIdentifierFactory);
                 String reason = decoder.readNullableString();
                 variant.addDependencyConstraint(selector.getGroup(), selector.getModule(), selector.getVersionConstraint(), reason, (ImmutableAttributes) selector.getAttributes());
             }
@@ -544,7 +543,7 @@ private void readInfoSection() throws IOException {
         }
 
         private ModuleComponentIdentifier readId() throws IOException {
-            return DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId(readString(), readString()), readString());
+            return DefaultModuleComponentIdentifier.newId(moduleIdentifierFactory.module(readString(), readString()), readString());
         }
 
         private Map<NamespaceId, String> readExtraInfo() throws IOException {
@@ -596,7 +595,7 @@ private List<IvyDependencyDescriptor> readIvyDependencies() throws IOException {
         }
 
         private IvyDependencyDescriptor readIvyDependency() throws IOException {
-            ModuleComponentSelector requested = componentSelectorSerializer.read(decoder);
+            ModuleComponentSelector requested = componentSelectorSerializer.read(decoder, moduleIdentifierFactory);
             SetMultimap<String, String> configMappings = readDependencyConfigurationMapping();
             List<Artifact> artifacts = readDependencyArtifactDescriptors();
             List<Exclude> excludes = readDependencyExcludes();
@@ -668,7 +667,7 @@ private List<MavenDependencyDescriptor> readMavenDependencies(Map<Integer, Maven
         private MavenDependencyDescriptor readMavenDependency(Map<Integer, MavenDependencyDescriptor> deduplicationDependencyCache) throws IOException {
             int mapping = decoder.readSmallInt();
             if (mapping == deduplicationDependencyCache.size()) {
-                ModuleComponentSelector requested = componentSelectorSerializer.read(decoder);
+                ModuleComponentSelector requested = componentSelectorSerializer.read(decoder, moduleIdentifierFactory);
                 IvyArtifactName artifactName = IvyArtifactNameSerializer.INSTANCE.readNullable(decoder);
                 List<ExcludeMetadata> mavenExcludes = readMavenDependencyExcludes();
                 MavenScope scope = MavenScope.values()[decoder.readSmallInt()];
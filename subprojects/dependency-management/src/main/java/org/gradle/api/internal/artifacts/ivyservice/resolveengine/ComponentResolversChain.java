@@ -162,5 +162,12 @@ public void resolve(DependencyMetadata dependency, VersionSelector acceptor, @Nu
                 resolver.resolve(dependency, acceptor, rejector, result);
             }
         }
+
+        @Override
+        public void prefetchVersionListings(DependencyMetadata dependency) {
+            for (DependencyToComponentIdResolver resolver : resolvers) {
+                resolver.prefetchVersionListings(dependency);
+            }
+        }
     }
 }
@@ -144,7 +144,7 @@ public int hashCode() {
      * A shareable backing cache for different caching exclude factories.
      * Synchronization is ad-hoc, since `computeIfAbsent` on a concurrent hash map
      * will not allow for recursion, which is the case for us whenever a cache is
-     * found at different levels.
+     * found at different levels. Lookups of already merged specs do not lock.
      */
     public static class MergeCaches {
         private final ConcurrentCache<ExcludePair, ExcludeSpec> allOfPairCache = ConcurrentCache.of();
@@ -170,15 +170,19 @@ ExcludeSpec getAllOf(ExcludesKey list, Function<ExcludesKey, ExcludeSpec> onMiss
     }
 
     private static class ConcurrentCache<K, V> {
-        private final Map<K, V> backingMap = Maps.newHashMap();
+        private final Map<K, V> backingMap = Maps.newConcurrentMap();
 
         static <K, V> ConcurrentCache<K, V> of() {
             return new ConcurrentCache<>();
         }
 
         V computeIfAbsent(K key, Function<K, V> producer) {
+            V value = backingMap.get(key);
+            if (value != null) {
+                return value;
+            }
             synchronized (backingMap) {
-                V value = backingMap.get(key);
+                value = backingMap.get(key);
                 if (value != null) {
                     return value;
                 }
@@ -107,8 +107,7 @@ ExcludeSpec tryIntersect(ExcludeSpec left, ExcludeSpec right) {
     private ExcludeSpec intersectModuleSet(ModuleSetExclude left, ExcludeSpec right) {
         if (right instanceof ModuleSetExclude) {
             ModuleSetExclude msr = (ModuleSetExclude) right;
-            Set<String> modules = Sets.newHashSet(left.getModules());
-            modules.retainAll(msr.getModules());
+            Set<String> modules = intersection(left.getModules(), msr.getModules());
             if (modules.isEmpty()) {
                 return factory.nothing();
             }
@@ -124,8 +123,7 @@ private ExcludeSpec intersectAnyOf(ExcludeAnyOf left, ExcludeSpec right) {
         Set<ExcludeSpec> leftComponents = left.getComponents();
         if (right instanceof ExcludeAnyOf) {
             Set<ExcludeSpec> rightComponents = ((ExcludeAnyOf) right).getComponents();
-            Set<ExcludeSpec> common = Sets.newHashSet(leftComponents);
-            common.retainAll(rightComponents);
+            Set<ExcludeSpec> common = intersection(leftComponents, rightComponents);
             if (common.size() >= 1) {
                 ExcludeSpec alpha = asUnion(common);
                 if (leftComponents.equals(common) || rightComponents.equals(common)) {
@@ -226,8 +224,7 @@ private ExcludeSpec intersectModuleId(ModuleIdExclude left, ExcludeSpec right) {
     private ExcludeSpec intersectModuleIdSet(ModuleIdSetExclude left, ExcludeSpec right) {
         Set<ModuleIdentifier> moduleIds = left.getModuleIds();
         if (right instanceof ModuleIdSetExclude) {
-            Set<ModuleIdentifier> common = Sets.newHashSet(((ModuleIdSetExclude) right).getModuleIds());
-            common.retainAll(moduleIds);
+            Set<ModuleIdentifier> common = intersection(moduleIds, ((ModuleIdSetExclude) right).getModuleIds());
             return moduleIds(common);
         } else if (right instanceof ModuleSetExclude) {
             Set<String> modules = ((ModuleSetExclude) right).getModules();
@@ -268,7 +265,7 @@ private ExcludeSpec intersectGroup(GroupExclude left, ExcludeSpec right) {
                 return factory.nothing();
             }
         } else if (right instanceof GroupSetExclude) {
-            if (((GroupSetExclude) right).getGroups().stream().anyMatch(g -> g.equals(group))) {
+            if (((GroupSetExclude) right).getGroups().contains(group)) {
                 return left;
             }
             return factory.nothing();
@@ -301,8 +298,7 @@ private ExcludeSpec moduleIdSet(Set<ModuleIdentifier> moduleIds) {
     private ExcludeSpec intersectGroupSet(GroupSetExclude left, ExcludeSpec right) {
         Set<String> groups = left.getGroups();
         if (right instanceof GroupSetExclude) {
-            Set<String> common = Sets.newHashSet(((GroupSetExclude) right).getGroups());
-            common.retainAll(groups);
+            Set<String> common = intersection(groups, ((GroupSetExclude) right).getGroups());
             return groupSet(common);
         } else if (right instanceof ModuleIdExclude) {
             if (groups.contains(((ModuleIdExclude) right).getModuleId().getGroup())) {
@@ -347,7 +343,7 @@ private ExcludeSpec intersectModule(ModuleExclude left, ExcludeSpec right) {
                 return factory.nothing();
             }
         } else if (right instanceof ModuleSetExclude) {
-            if (((ModuleSetExclude) right).getModules().stream().anyMatch(g -> g.equals(module))) {
+            if (((ModuleSetExclude) right).getModules().contains(module)) {
                 return left;
             }
             return factory.nothing();
@@ -359,4 +355,19 @@ private ExcludeSpec intersectModule(ModuleExclude left, ExcludeSpec right) {
         }
         return null;
     }
+
+    /**
+     * Computes the intersection of two sets by looking up the elements of the smaller set in the larger one.
+     */
+    private static <T> Set<T> intersection(Set<T> left, Set<T> right) {
+        Set<T> smaller = left.size() <= right.size() ? left : right;
+        Set<T> larger = smaller == left ? right : left;
+        Set<T> common = Sets.newHashSetWithExpectedSize(smaller.size());
+        for (T element : smaller) {
+            if (larger.contains(element)) {
+                common.add(element);
+            }
+        }
+        return common;
+    }
 }
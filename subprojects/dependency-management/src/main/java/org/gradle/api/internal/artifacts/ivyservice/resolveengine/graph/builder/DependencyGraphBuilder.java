@@ -22,6 +22,7 @@
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.artifacts.component.ModuleComponentSelector;
 import org.gradle.api.attributes.Attribute;
 import org.gradle.api.capabilities.Capability;
@@ -56,6 +57,7 @@
 import org.gradle.internal.component.model.DependencyMetadata;
 import org.gradle.internal.operations.BuildOperationConstraint;
 import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.resolve.ModuleVersionResolveException;
 import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
 import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
@@ -145,17 +147,27 @@ public void resolve(final ResolveContext resolveContext, final DependencyGraphVi
 
         ResolveState resolveState = new ResolveState(idGenerator, rootState, resolveContext.getName(), idResolver, metaDataResolver, edgeFilter, attributesSchema, moduleExclusions, componentSelectorConverter, attributesFactory, attributeDesugaring, dependencySubstitutionApplicator, versionSelectorScheme, versionComparator, versionParser, moduleConflictHandler.getResolver(), graphSize, resolveContext.getResolutionStrategy().getConflictResolution(), syntheticDependencies, conflictTracker);
 
-        traverseGraph(resolveState);
+        MetadataPrefetcher prefetcher = MetadataPrefetcher.ENABLED ? new MetadataPrefetcher(idResolver, metaDataResolver, edgeFilter, versionSelectorScheme, canPrefetchVersions(resolutionStrategy)) : null;
+        traverseGraph(resolveState, prefetcher);
 
         validateGraph(resolveState, resolutionStrategy.isFailingOnDynamicVersions(), resolutionStrategy.isFailingOnChangingVersions());
 
         assembleResult(resolveState, modelVisitor);
     }
 
+    /**
+     * Version listings are not prefetched when the versions selected by dynamic selectors are subject to further rules or checks.
+     */
+    private static boolean canPrefetchVersions(ResolutionStrategyInternal resolutionStrategy) {
+        return resolutionStrategy.getComponentSelection().getRules().isEmpty()
+            && !resolutionStrategy.isDependencyLockingEnabled()
+            && !resolutionStrategy.isFailingOnDynamicVersions();
+    }
+
     /**
      * Traverses the dependency graph, resolving conflicts and building the paths from the root configuration.
      */
-    private void traverseGraph(final ResolveState resolveState) {
+    private void traverseGraph(final ResolveState resolveState, @Nullable MetadataPrefetcher prefetcher) {
         resolveState.onMoreSelected(resolveState.getRoot());
         final List<EdgeState> dependencies = Lists.newArrayList();
 
@@ -170,9 +182,9 @@ private void traverseGraph(final ResolveState resolveState) {
                 // Initialize and collect any new outgoing edges of this node
                 dependencies.clear();
                 node.visitOutgoingDependencies(dependencies);
-                boolean edgeWasProcessed = resolveEdges(node, dependencies, ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC, false, resolveState);
+                boolean edgeWasProcessed = resolveEdges(node, dependencies, ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC, false, resolveState, prefetcher);
                 node.collectEndorsedStrictVersions(dependencies);
-                resolveEdges(node, dependencies, NOT_ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC, edgeWasProcessed, resolveState);
+                resolveEdges(node, dependencies, NOT_ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC, edgeWasProcessed, resolveState, prefetcher);
             } else {
                 // We have some batched up conflicts. Resolve the first, and continue traversing the graph
                 if (moduleConflictHandler.hasConflicts()) {
@@ -229,12 +241,13 @@ private boolean resolveEdges(
         final List<EdgeState> dependencies,
         final Spec<EdgeState> dependencyFilter,
         final boolean recomputeSelectors,
-        final ResolveState resolveState) {
+        final ResolveState resolveState,
+        @Nullable final MetadataPrefetcher prefetcher) {
         if (dependencies.isEmpty()) {
             return false;
         }
         if (performSelectionSerially(dependencies, dependencyFilter, resolveState, recomputeSelectors)) {
-            maybeDownloadMetadataInParallel(node, dependencies, dependencyFilter);
+            maybeDownloadMetadataInParallel(node, dependencies, dependencyFilter, resolveState, prefetcher);
             attachToTargetRevisionsSerially(dependencies, dependencyFilter);
             return true;
         } else {
@@ -307,8 +320,9 @@ private void checkForModuleConflicts(ResolveState resolveState, ModuleResolveSta
     /**
      * Prepares the resolution of edges, either serially or concurrently.
      * It uses a simple heuristic to determine if we should perform concurrent resolution, based on the number of edges, and whether they have unresolved metadata.
+     * When prefetching is enabled, the metadata required by the queued nodes is downloaded in the same batch.
      */
-    private void maybeDownloadMetadataInParallel(NodeState node, List<EdgeState> dependencies, Spec<EdgeState> dependencyFilter) {
+    private void maybeDownloadMetadataInParallel(NodeState node, List<EdgeState> dependencies, Spec<EdgeState> dependencyFilter, ResolveState resolveState, @Nullable MetadataPrefetcher prefetcher) {
         List<ComponentState> requiringDownload = null;
         for (EdgeState dependency : dependencies) {
             if (!dependencyFilter.isSatisfiedBy(dependency)) {
@@ -322,17 +336,25 @@ private void maybeDownloadMetadataInParallel(NodeState node, List<EdgeState> dep
                         requiringDownload = Lists.newArrayList();
                     }
                     requiringDownload.add(targetComponent);
+                    if (prefetcher != null && targetComponent.getComponentId() instanceof ModuleComponentIdentifier) {
+                        prefetcher.downloading((ModuleComponentIdentifier) targetComponent.getComponentId());
+                    }
                 }
             }
         }
+        List<RunnableBuildOperation> prefetches = prefetcher == null ? Collections.emptyList() : prefetcher.collectPrefetches(resolveState.getQueuedNodes());
         // Only download in parallel if there is more than 1 component to download
-        if (requiringDownload != null && requiringDownload.size() > 1) {
-            final ImmutableList<ComponentState> toDownloadInParallel = ImmutableList.copyOf(requiringDownload);
-            LOGGER.debug("Submitting {} metadata files to resolve in parallel for {}", toDownloadInParallel.size(), node);
+        int downloadCount = (requiringDownload == null ? 0 : requiringDownload.size()) + prefetches.size();
+        if (downloadCount > 1) {
+            final ImmutableList<ComponentState> toDownloadInParallel = requiringDownload == null ? ImmutableList.of() : ImmutableList.copyOf(requiringDownload);
+            LOGGER.debug("Submitting {} metadata files to resolve in parallel for {}, prefetching {} more", toDownloadInParallel.size(), node, prefetches.size());
             buildOperationExecutor.runAll(buildOperationQueue -> {
                 for (final ComponentState componentState : toDownloadInParallel) {
                     buildOperationQueue.add(new DownloadMetadataOperation(componentState));
                 }
+                for (RunnableBuildOperation prefetch : prefetches) {
+                    buildOperationQueue.add(prefetch);
+                }
             }, BuildOperationConstraint.UNCONSTRAINED);
         }
     }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder;
+
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.specs.Spec;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
+import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Speculatively downloads the metadata of the modules the queued nodes depend on, so that it is fetched in the same parallel batch
+ * as the metadata for the node currently being visited, instead of one node at a time.
+ *
+ * The versions of the modules selected by dynamic versions of the queued nodes are listed the same way, so that the version listings
+ * of all dynamic selectors are fetched in parallel batches rather than one selector at a time. Only the listings are fetched: no version
+ * is selected ahead of time and no rules are run. Listings are not prefetched at all when rules or dependency locking apply to dynamic versions.
+ *
+ * Prefetching does not change the graph: the results are discarded and only populate the repository caches, from which
+ * the metadata and version listings are read once the nodes are actually visited. Only plain dependencies are considered, so
+ * metadata may still be downloaded for modules which end up being excluded, substituted or evicted by conflict resolution.
+ * This is why this is an opt-in mode.
+ */
+class MetadataPrefetcher {
+    static final boolean ENABLED = Boolean.getBoolean("org.gradle.internal.dm.prefetch.metadata");
+    private static final int MAX_QUEUED_NODES = 64;
+
+    private final DependencyToComponentIdResolver idResolver;
+    private final ComponentMetaDataResolver metaDataResolver;
+    private final Spec<? super DependencyMetadata> edgeFilter;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final boolean prefetchVersions;
+    private final Set<NodeState> visitedNodes = new HashSet<>();
+    private final Set<ModuleComponentIdentifier> seenComponents = new HashSet<>();
+    private final Set<ModuleComponentSelector> seenSelectors = new HashSet<>();
+
+    MetadataPrefetcher(DependencyToComponentIdResolver idResolver, ComponentMetaDataResolver metaDataResolver, Spec<? super DependencyMetadata> edgeFilter, VersionSelectorScheme versionSelectorScheme, boolean prefetchVersions) {
+        this.idResolver = idResolver;
+        this.metaDataResolver = metaDataResolver;
+        this.edgeFilter = edgeFilter;
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.prefetchVersions = prefetchVersions;
+    }
+
+    /**
+     * Marks a component as being downloaded already, so it is not prefetched.
+     */
+    void downloading(ModuleComponentIdentifier id) {
+        seenComponents.add(id);
+    }
+
+    /**
+     * Collects the components which the queued nodes depend on and which are not cheap to fetch yet, and the dynamic versions they select.
+     */
+    List<RunnableBuildOperation> collectPrefetches(Collection<NodeState> queuedNodes) {
+        List<RunnableBuildOperation> prefetches = new ArrayList<>();
+        int remaining = MAX_QUEUED_NODES;
+        for (NodeState node : queuedNodes) {
+            if (remaining-- == 0) {
+                break;
+            }
+            if (!(node.getComponent().getComponentId() instanceof ModuleComponentIdentifier) || !visitedNodes.add(node)) {
+                continue;
+            }
+            for (DependencyMetadata dependency : node.getMetadata().getDependencies()) {
+                ModuleComponentSelector selector = prefetchCandidate(dependency);
+                if (selector == null) {
+                    continue;
+                }
+                VersionSelector versionSelector = versionSelectorScheme.parseSelector(selector.getVersion());
+                if (versionSelector.isDynamic()) {
+                    if (prefetchVersions && seenSelectors.add(selector)) {
+                        prefetches.add(new PrefetchVersionsOperation(idResolver, dependency));
+                    }
+                } else {
+                    ModuleComponentIdentifier id = DefaultModuleComponentIdentifier.newId(selector.getModuleIdentifier(), selector.getVersion());
+                    if (seenComponents.add(id) && !metaDataResolver.isFetchingMetadataCheap(id)) {
+                        prefetches.add(new PrefetchMetadataOperation(metaDataResolver, id));
+                    }
+                }
+            }
+        }
+        return prefetches;
+    }
+
+    @Nullable
+    private ModuleComponentSelector prefetchCandidate(DependencyMetadata dependency) {
+        if (dependency.isConstraint() || dependency.isChanging() || !dependency.getArtifacts().isEmpty() || !edgeFilter.isSatisfiedBy(dependency)) {
+            return null;
+        }
+        if (!(dependency.getSelector() instanceof ModuleComponentSelector)) {
+            return null;
+        }
+        ModuleComponentSelector selector = (ModuleComponentSelector) dependency.getSelector();
+        if (selector.getVersion().isEmpty()) {
+            return null;
+        }
+        return selector;
+    }
+}
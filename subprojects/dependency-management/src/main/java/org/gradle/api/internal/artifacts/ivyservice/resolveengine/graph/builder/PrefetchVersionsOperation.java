@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder;
+
+import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lists the versions of the module a dynamic version selector selects from ahead of time, so that the listings are cached when the selector is resolved as part of the graph.
+ */
+class PrefetchVersionsOperation implements RunnableBuildOperation {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrefetchVersionsOperation.class);
+
+    private final DependencyToComponentIdResolver idResolver;
+    private final DependencyMetadata dependency;
+
+    PrefetchVersionsOperation(DependencyToComponentIdResolver idResolver, DependencyMetadata dependency) {
+        this.idResolver = idResolver;
+        this.dependency = dependency;
+    }
+
+    @Override
+    public void run(BuildOperationContext context) {
+        try {
+            idResolver.prefetchVersionListings(dependency);
+        } catch (Exception e) {
+            // The failure is reported when the selector is resolved as part of the graph, if it is part of it at all
+            LOGGER.debug("Could not prefetch versions for {}.", dependency.getSelector(), e);
+        }
+    }
+
+    @Override
+    public BuildOperationDescriptor.Builder description() {
+        return BuildOperationDescriptor.displayName("Prefetch versions of " + dependency.getSelector());
+    }
+}
@@ -53,6 +53,7 @@
 import javax.annotation.Nullable;
 import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.LinkedHashMap;
@@ -223,6 +224,10 @@ public NodeState pop() {
         return next.dequeue();
     }
 
+    public Collection<NodeState> getQueuedNodes() {
+        return Collections.unmodifiableCollection(queue);
+    }
+
     /**
      * Called when a change is made to a configuration node, such that its dependency graph <em>may</em> now be larger than it previously was, and the node should be visited.
      */
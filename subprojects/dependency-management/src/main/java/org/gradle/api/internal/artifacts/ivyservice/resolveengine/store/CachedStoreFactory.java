@@ -52,6 +52,8 @@ public Store<T> createCachedStore(final Object id) {
 
     @Override
     public void close() {
+        // The factory lives as long as the build, so drop the deserialized results with it rather than waiting for them to expire
+        cache.invalidateAll();
         LOG.debug(displayName + " cache closed. Cache reads: "
                 + stats.readsFromCache + ", disk reads: "
                 + stats.readsFromDisk + " (avg: " + TimeFormatting.formatDurationVerbose(stats.getDiskReadsAvgMs()) + ", total: " + TimeFormatting.formatDurationVerbose(stats.diskReadsTotalMs.get()) + ")");
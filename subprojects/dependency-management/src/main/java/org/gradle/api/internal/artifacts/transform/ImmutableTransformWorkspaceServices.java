@@ -17,20 +17,23 @@
 package org.gradle.api.internal.artifacts.transform;
 
 import org.gradle.api.internal.cache.CacheConfigurationsInternal;
+import org.gradle.cache.Cache;
 import org.gradle.cache.CacheBuilder;
 import org.gradle.cache.internal.CrossBuildInMemoryCache;
 import org.gradle.internal.Try;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.execution.UnitOfWork;
 import org.gradle.internal.execution.history.ExecutionHistoryStore;
 import org.gradle.internal.execution.workspace.impl.DefaultImmutableWorkspaceProvider;
 import org.gradle.internal.file.FileAccessTimeJournal;
+import org.gradle.internal.file.Stat;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.Closeable;
 
 @NotThreadSafe
 public class ImmutableTransformWorkspaceServices implements TransformWorkspaceServices, Closeable {
-    private final CrossBuildInMemoryCache<UnitOfWork.Identity, Try<TransformExecutionResult>> identityCache;
+    private final Cache<UnitOfWork.Identity, Try<TransformExecutionResult>> identityCache;
     private final DefaultImmutableWorkspaceProvider workspaceProvider;
 
     public ImmutableTransformWorkspaceServices(
@@ -38,10 +41,14 @@ public ImmutableTransformWorkspaceServices(
         FileAccessTimeJournal fileAccessTimeJournal,
         ExecutionHistoryStore executionHistoryStore,
         CrossBuildInMemoryCache<UnitOfWork.Identity, Try<TransformExecutionResult>> identityCache,
+        Stat stat,
+        ListenerManager listenerManager,
         CacheConfigurationsInternal cacheConfigurations
     ) {
         this.workspaceProvider = DefaultImmutableWorkspaceProvider.withExternalHistory(cacheBuilder, fileAccessTimeJournal, executionHistoryStore, cacheConfigurations);
-        this.identityCache = identityCache;
+        ValidatingTransformResultCache validatingIdentityCache = new ValidatingTransformResultCache(identityCache, stat);
+        listenerManager.addListener(validatingIdentityCache);
+        this.identityCache = validatingIdentityCache;
     }
 
     @Override
@@ -50,7 +57,7 @@ public DefaultImmutableWorkspaceProvider getWorkspaceProvider() {
     }
 
     @Override
-    public CrossBuildInMemoryCache<UnitOfWork.Identity, Try<TransformExecutionResult>> getIdentityCache() {
+    public Cache<UnitOfWork.Identity, Try<TransformExecutionResult>> getIdentityCache() {
         return identityCache;
     }
 
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.transform;
+
+import org.gradle.cache.Cache;
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.internal.Try;
+import org.gradle.internal.execution.UnitOfWork;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.file.Stat;
+import org.gradle.internal.session.BuildSessionLifecycleListener;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * An in-memory cache of immutable transform results which is kept across builds, and which only hands out a result when the outputs it produced are still present.
+ *
+ * The outputs are only checked for existence, without reading or hashing their contents, and only the first time a result is handed out in a build session.
+ * A result whose outputs have been removed, for example by deleting the Gradle user home caches while the daemon was idle, is recalculated.
+ */
+class ValidatingTransformResultCache implements Cache<UnitOfWork.Identity, Try<TransformExecutionResult>>, BuildSessionLifecycleListener {
+    private final CrossBuildInMemoryCache<UnitOfWork.Identity, Try<TransformExecutionResult>> delegate;
+    private final Stat stat;
+    private final Set<UnitOfWork.Identity> validInCurrentSession = ConcurrentHashMap.newKeySet();
+
+    ValidatingTransformResultCache(CrossBuildInMemoryCache<UnitOfWork.Identity, Try<TransformExecutionResult>> delegate, Stat stat) {
+        this.delegate = delegate;
+        this.stat = stat;
+    }
+
+    @Override
+    public Try<TransformExecutionResult> get(UnitOfWork.Identity key, Function<? super UnitOfWork.Identity, ? extends Try<TransformExecutionResult>> factory) {
+        Try<TransformExecutionResult> cachedResult = delegate.getIfPresent(key);
+        if (cachedResult == null) {
+            Try<TransformExecutionResult> result = delegate.get(key, factory);
+            validInCurrentSession.add(key);
+            return result;
+        }
+        if (isValid(key, cachedResult)) {
+            return cachedResult;
+        }
+        Try<TransformExecutionResult> result = factory.apply(key);
+        put(key, result);
+        return result;
+    }
+
+    @Nullable
+    @Override
+    public Try<TransformExecutionResult> getIfPresent(UnitOfWork.Identity key) {
+        Try<TransformExecutionResult> cachedResult = delegate.getIfPresent(key);
+        return cachedResult != null && isValid(key, cachedResult) ? cachedResult : null;
+    }
+
+    @Override
+    public void put(UnitOfWork.Identity key, Try<TransformExecutionResult> value) {
+        delegate.put(key, value);
+        validInCurrentSession.add(key);
+    }
+
+    @Override
+    public void beforeComplete() {
+        // The outputs may be removed between sessions, so check each result again in the next session
+        validInCurrentSession.clear();
+    }
+
+    private boolean isValid(UnitOfWork.Identity key, Try<TransformExecutionResult> cachedResult) {
+        if (validInCurrentSession.contains(key)) {
+            return true;
+        }
+        if (cachedResult.isSuccessful() && !producedOutputsPresent(cachedResult.get())) {
+            return false;
+        }
+        validInCurrentSession.add(key);
+        return true;
+    }
+
+    private boolean producedOutputsPresent(TransformExecutionResult result) {
+        ProducedOutputsPresentVisitor visitor = new ProducedOutputsPresentVisitor();
+        result.visitOutputs(visitor);
+        return visitor.present;
+    }
+
+    private class ProducedOutputsPresentVisitor implements TransformExecutionResult.OutputVisitor {
+        private boolean present = true;
+
+        @Override
+        public void visitEntireInputArtifact() {
+        }
+
+        @Override
+        public void visitPartOfInputArtifact(String relativePath) {
+        }
+
+        @Override
+        public void visitProducedOutput(File outputLocation) {
+            if (present && stat.stat(outputLocation).getType() == FileType.Missing) {
+                present = false;
+            }
+        }
+    }
+}
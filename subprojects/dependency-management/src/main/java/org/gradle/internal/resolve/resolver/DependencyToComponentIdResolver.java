@@ -35,4 +35,12 @@ public interface DependencyToComponentIdResolver {
      * <p>At some point in the future, this should resolve to a set of candidates rather than a single instance.
      */
     void resolve(DependencyMetadata dependency, VersionSelector acceptor, @Nullable VersionSelector rejector, BuildableComponentIdResolveResult result);
+
+    /**
+     * Lists the available versions of the module the given dynamic dependency selects, so that the listings are cached once the dependency is resolved.
+     *
+     * <p>This does not select a version, and does nothing if resolving the dependency would apply any component metadata rules.</p>
+     */
+    default void prefetchVersionListings(DependencyMetadata dependency) {
+    }
 }
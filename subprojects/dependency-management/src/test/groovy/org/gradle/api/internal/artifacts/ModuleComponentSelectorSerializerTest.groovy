@@ -24,6 +24,7 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.Desugar
 import org.gradle.api.internal.attributes.ImmutableAttributes
 import org.gradle.internal.component.external.model.DefaultImmutableCapability
 import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
 import org.gradle.util.TestUtil
 
 import static org.gradle.internal.component.external.model.DefaultModuleComponentSelector.newSelector
@@ -60,6 +61,21 @@ class ModuleComponentSelectorSerializerTest extends SerializerSpec {
         result == newSelector(UTIL, constraint, ImmutableAttributes.EMPTY, [])
     }
 
+    def "shares version constraints and module identifiers of deserialized selectors"() {
+        def moduleIdentifierFactory = new DefaultImmutableModuleIdentifierFactory()
+        def bytes = toBytes(newSelector(UTIL, constraint('5.0', '', []), ImmutableAttributes.EMPTY, []), serializer)
+
+        when:
+        def first = serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(bytes)), moduleIdentifierFactory)
+        def second = serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(bytes)), moduleIdentifierFactory)
+
+        then:
+        first == second
+        first.moduleIdentifier.is(second.moduleIdentifier)
+        first.moduleIdentifier.is(moduleIdentifierFactory.module("org", "util"))
+        first.versionConstraint.is(second.versionConstraint)
+    }
+
     private static MutableVersionConstraint constraint(String version, String strictVersion, List<String> rejectedVersions) {
         MutableVersionConstraint constraint = new DefaultMutableVersionConstraint(version)
         if (strictVersion != null) {
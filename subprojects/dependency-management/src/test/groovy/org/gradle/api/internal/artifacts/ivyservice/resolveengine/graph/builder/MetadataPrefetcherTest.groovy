@@ -0,0 +1,160 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder
+
+import org.gradle.api.artifacts.component.ComponentIdentifier
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier
+import org.gradle.api.artifacts.component.ProjectComponentIdentifier
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.specs.Specs
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.component.model.DependencyMetadata
+import org.gradle.internal.component.model.VariantGraphResolveMetadata
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver
+import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver
+import spock.lang.Specification
+
+class MetadataPrefetcherTest extends Specification {
+    def idResolver = Mock(DependencyToComponentIdResolver)
+    def metaDataResolver = Mock(ComponentMetaDataResolver)
+    def prefetcher = new MetadataPrefetcher(idResolver, metaDataResolver, Specs.satisfyAll(), new DefaultVersionSelectorScheme(new DefaultVersionComparator(), new VersionParser()), true)
+
+    def "prefetches static dependencies of queued nodes"() {
+        def nodes = [
+            node(id("a"), dependency("b"), dependency("d", "1.0", true)),
+            node(id("e"), dependency("b"), dependency("f"))
+        ]
+        metaDataResolver.isFetchingMetadataCheap(_) >> false
+
+        when:
+        def prefetches = prefetcher.collectPrefetches(nodes)
+        prefetches*.run(null)
+
+        then:
+        prefetches.size() == 2
+        1 * metaDataResolver.resolve(id("b"), _, _)
+        1 * metaDataResolver.resolve(id("f"), _, _)
+        0 * metaDataResolver.resolve(_, _, _)
+        0 * idResolver._
+    }
+
+    def "prefetches versions of dynamic dependencies of queued nodes"() {
+        def c = dependency("c", "1.+")
+        def nodes = [
+            node(id("a"), c, dependency("d", "latest.release", true)),
+            node(id("e"), dependency("c", "1.+"), dependency("f", "[1.0,2.0)"))
+        ]
+
+        when:
+        def prefetches = prefetcher.collectPrefetches(nodes)
+        prefetches*.run(null)
+
+        then:
+        prefetches.size() == 2
+        1 * idResolver.prefetchVersionListings(c)
+        1 * idResolver.prefetchVersionListings({ it.selector.module == "f" })
+        0 * idResolver._
+        0 * metaDataResolver._
+    }
+
+    def "does not prefetch versions of dynamic dependencies when disabled"() {
+        def versionsDisabled = new MetadataPrefetcher(idResolver, metaDataResolver, Specs.satisfyAll(), new DefaultVersionSelectorScheme(new DefaultVersionComparator(), new VersionParser()), false)
+        def nodes = [node(id("a"), dependency("b", "1.+"), dependency("c"))]
+        metaDataResolver.isFetchingMetadataCheap(_) >> false
+
+        when:
+        def prefetches = versionsDisabled.collectPrefetches(nodes)
+        prefetches*.run(null)
+
+        then:
+        prefetches.size() == 1
+        1 * metaDataResolver.resolve(id("c"), _, _)
+        0 * idResolver._
+    }
+
+    def "ignores failures to prefetch versions"() {
+        def nodes = [node(id("a"), dependency("b", "1.+"))]
+
+        when:
+        def prefetches = prefetcher.collectPrefetches(nodes)
+        prefetches*.run(null)
+
+        then:
+        prefetches.size() == 1
+        1 * idResolver.prefetchVersionListings(_) >> { throw new RuntimeException("broken") }
+        noExceptionThrown()
+    }
+
+    def "does not prefetch components which are already downloaded, cheap to fetch or required by nodes visited before"() {
+        def queued = node(id("a"), dependency("b"), dependency("c"), dependency("d"))
+        metaDataResolver.isFetchingMetadataCheap(id("c")) >> true
+        metaDataResolver.isFetchingMetadataCheap(_) >> false
+        prefetcher.downloading(id("b"))
+
+        when:
+        def prefetches = prefetcher.collectPrefetches([queued])
+
+        then:
+        prefetches.size() == 1
+
+        when:
+        prefetches = prefetcher.collectPrefetches([queued, node(id("e"), dependency("d"))])
+
+        then:
+        prefetches.empty
+    }
+
+    def "does not prefetch dependencies of project components"() {
+        def project = node(Stub(ProjectComponentIdentifier), dependency("b"))
+
+        when:
+        def prefetches = prefetcher.collectPrefetches([project])
+
+        then:
+        prefetches.empty
+        0 * metaDataResolver._
+    }
+
+    private static ModuleComponentIdentifier id(String name) {
+        DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId("org", name), "1.0")
+    }
+
+    private DependencyMetadata dependency(String name, String version = "1.0", boolean constraint = false) {
+        Stub(DependencyMetadata) {
+            getSelector() >> DefaultModuleComponentSelector.newSelector(DefaultModuleIdentifier.newId("org", name), version)
+            getArtifacts() >> []
+            isConstraint() >> constraint
+        }
+    }
+
+    private NodeState node(ComponentIdentifier componentId, DependencyMetadata... dependencies) {
+        def component = Stub(ComponentState) {
+            getComponentId() >> componentId
+        }
+        def metadata = Stub(VariantGraphResolveMetadata) {
+            getDependencies() >> (dependencies as List)
+        }
+        Stub(NodeState) {
+            getComponent() >> component
+            getMetadata() >> metadata
+        }
+    }
+}
@@ -37,4 +37,18 @@ class CachedStoreFactoryTest extends Specification {
         store1b.load({assert false} as Factory) == results1
         store2.load({results2} as Factory) == results2
     }
+
+    def "discards results when closed"() {
+        def factory = new CachedStoreFactory("some cache")
+        def results1 = new Object()
+        def results2 = new Object()
+        def store = factory.createCachedStore("conf1")
+        store.load({results1} as Factory)
+
+        when:
+        factory.close()
+
+        then:
+        store.load({results2} as Factory) == results2
+    }
 }
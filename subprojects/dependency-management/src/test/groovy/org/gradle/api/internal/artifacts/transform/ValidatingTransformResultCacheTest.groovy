@@ -0,0 +1,130 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.transform
+
+import org.gradle.cache.internal.CrossBuildInMemoryCache
+import org.gradle.internal.Try
+import org.gradle.internal.execution.UnitOfWork
+import org.gradle.internal.file.FileMetadata
+import org.gradle.internal.file.FileType
+import org.gradle.internal.file.Stat
+import spock.lang.Specification
+
+class ValidatingTransformResultCacheTest extends Specification {
+    def values = [:]
+    def delegate = Stub(CrossBuildInMemoryCache) {
+        getIfPresent(_) >> { UnitOfWork.Identity key -> values[key] }
+        put(_, _) >> { UnitOfWork.Identity key, value -> values[key] = value }
+    }
+    def stat = Mock(Stat)
+    def cache = new ValidatingTransformResultCache(delegate, stat)
+
+    def identity = Stub(UnitOfWork.Identity)
+    def outputFile = new File("output.jar").absoluteFile
+
+    def "hands out cached result when produced outputs are present"() {
+        def cachedResult = resultProducing(outputFile)
+        values[identity] = cachedResult
+
+        when:
+        def result = cache.getIfPresent(identity)
+
+        then:
+        result.is(cachedResult)
+        1 * stat.stat(outputFile) >> metadata(FileType.RegularFile)
+    }
+
+    def "recalculates cached result when produced outputs are missing"() {
+        values[identity] = resultProducing(outputFile)
+        def newResult = resultProducing(outputFile)
+
+        when:
+        def present = cache.getIfPresent(identity)
+
+        then:
+        present == null
+        1 * stat.stat(outputFile) >> metadata(FileType.Missing)
+
+        when:
+        def result = cache.get(identity) { newResult }
+
+        then:
+        result.is(newResult)
+        values[identity].is(newResult)
+        1 * stat.stat(outputFile) >> metadata(FileType.Missing)
+    }
+
+    def "checks the outputs of a cached result only once per build session"() {
+        def cachedResult = resultProducing(outputFile)
+        values[identity] = cachedResult
+
+        when:
+        cache.getIfPresent(identity)
+        cache.getIfPresent(identity)
+        cache.get(identity) { throw new AssertionError() }
+
+        then:
+        1 * stat.stat(outputFile) >> metadata(FileType.RegularFile)
+
+        when:
+        cache.beforeComplete()
+        def result = cache.getIfPresent(identity)
+
+        then:
+        result.is(cachedResult)
+        1 * stat.stat(outputFile) >> metadata(FileType.RegularFile)
+    }
+
+    def "does not check the outputs of results calculated in the current build session"() {
+        def newResult = resultProducing(outputFile)
+
+        when:
+        cache.put(identity, newResult)
+        def result = cache.getIfPresent(identity)
+
+        then:
+        result.is(newResult)
+        0 * stat._
+    }
+
+    def "does not check outputs selected from the input artifact or failed results"() {
+        def builder = TransformExecutionResult.builder()
+        builder.addEntireInputArtifact()
+        def selectedResult = Try.successful(builder.build())
+        def failedResult = Try.<TransformExecutionResult>failure(new RuntimeException("broken"))
+        def failedIdentity = Stub(UnitOfWork.Identity)
+        values[identity] = selectedResult
+        values[failedIdentity] = failedResult
+
+        expect:
+        cache.getIfPresent(identity).is(selectedResult)
+        cache.getIfPresent(failedIdentity).is(failedResult)
+        0 * stat._
+    }
+
+    private static Try<TransformExecutionResult> resultProducing(File outputFile) {
+        def builder = TransformExecutionResult.builder()
+        builder.addProducedOutput(outputFile)
+        return Try.successful(builder.build())
+    }
+
+    private FileMetadata metadata(FileType type) {
+        return Stub(FileMetadata) {
+            getType() >> type
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.verification.verifier
+
+import org.gradle.cache.internal.CrossBuildInMemoryCache
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
+import org.gradle.internal.hash.TestHashCodes
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.util.function.Function
+
+class DependencyVerifierCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+
+    def values = [:]
+    def cacheFactory = Stub(CrossBuildInMemoryCacheFactory) {
+        newCache() >> Stub(CrossBuildInMemoryCache) {
+            get(_, _ as Function) >> { key, Function factory -> values.computeIfAbsent(key, factory) }
+        }
+    }
+
+    @Subject
+    def cache = new DependencyVerifierCache(cacheFactory)
+
+    def "reads verification metadata only once per content hash"() {
+        def verificationsFile = temporaryFolder.file("verification-metadata.xml")
+        verificationsFile.text = metadata(true)
+
+        when:
+        def first = cache.readFromXml(verificationsFile, TestHashCodes.hashCodeFrom(1))
+        verificationsFile.text = metadata(false)
+        def second = cache.readFromXml(verificationsFile, TestHashCodes.hashCodeFrom(1))
+
+        then:
+        first.is(second)
+        first.configuration.verifyMetadata
+
+        when:
+        def third = cache.readFromXml(verificationsFile, TestHashCodes.hashCodeFrom(2))
+
+        then:
+        !third.is(first)
+        !third.configuration.verifyMetadata
+    }
+
+    private static String metadata(boolean verifyMetadata) {
+        """<?xml version="1.0" encoding="UTF-8"?>
+<verification-metadata>
+   <configuration>
+      <verify-metadata>$verifyMetadata</verify-metadata>
+   </configuration>
+</verification-metadata>
+"""
+    }
+}
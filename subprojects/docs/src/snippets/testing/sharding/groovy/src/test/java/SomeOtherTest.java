@@ -0,0 +1,5 @@
+import org.junit.*;
+
+public class SomeOtherTest {
+    @Test public void someOtherCheck() {}
+}
@@ -0,0 +1,19 @@
+plugins {
+    java
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    testImplementation("junit:junit:4.13")
+}
+
+// tag::test-sharding[]
+tasks.test {
+    shardCount.set(4)
+    shardIndex.set(providers.gradleProperty("shardIndex").map { it.toInt() }.orElse(0))
+    shardDurationsFile.set(layout.projectDirectory.file("test-class-durations.properties"))
+}
+// end::test-sharding[]
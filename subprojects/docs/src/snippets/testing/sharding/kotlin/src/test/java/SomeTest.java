@@ -0,0 +1,5 @@
+import org.junit.*;
+
+public class SomeTest {
+    @Test public void someCheck() {}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.execution.history.changes;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import org.gradle.internal.execution.history.impl.SerializableFileCollectionFingerprint;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.fingerprint.FileCollectionFingerprint;
+import org.gradle.internal.fingerprint.FileSystemLocationFingerprint;
+import org.gradle.internal.fingerprint.impl.DefaultFileSystemLocationFingerprint;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Compares two large fingerprints which differ in their root hashes, so the detailed comparison runs.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class FingerprintCompareStrategyBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    int entries;
+
+    @Param({"UNCHANGED", "ONE_MODIFIED", "ALL_MODIFIED"})
+    Scenario scenario;
+
+    @Param({"ABSOLUTE", "NORMALIZED"})
+    Strategy strategy;
+
+    FileCollectionFingerprint previous;
+    FileCollectionFingerprint current;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        previous = fingerprint(entries, i -> false, "previous");
+        switch (scenario) {
+            case UNCHANGED:
+                current = fingerprint(entries, i -> false, "current");
+                break;
+            case ONE_MODIFIED:
+                current = fingerprint(entries, i -> i == entries / 2, "current");
+                break;
+            case ALL_MODIFIED:
+                current = fingerprint(entries, i -> true, "current");
+                break;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    @Benchmark
+    public boolean allChanges() {
+        return strategy.compareStrategy.visitChangesSince(previous, current, "Input", new CollectingChangeVisitor());
+    }
+
+    @Benchmark
+    public boolean firstChange() {
+        return strategy.compareStrategy.visitChangesSince(previous, current, "Input", new LimitingChangeVisitor(1, new CollectingChangeVisitor()));
+    }
+
+    private static FileCollectionFingerprint fingerprint(int entries, IntPredicate modified, String rootHashSeed) {
+        ImmutableMap.Builder<String, FileSystemLocationFingerprint> fingerprints = ImmutableMap.builderWithExpectedSize(entries);
+        for (int i = 0; i < entries; i++) {
+            String relativePath = "dir" + (i % 1000) + "/file" + i + ".txt";
+            HashCode contentHash = Hashing.hashString(modified.test(i) ? "modified" + i : "content" + i);
+            fingerprints.put("/root/" + relativePath, new DefaultFileSystemLocationFingerprint(relativePath, FileType.RegularFile, contentHash));
+        }
+        return new SerializableFileCollectionFingerprint(
+            fingerprints.build(),
+            ImmutableMultimap.of("/root", Hashing.hashString(rootHashSeed)),
+            Hashing.hashString("strategy")
+        );
+    }
+
+    public enum Scenario {
+        UNCHANGED, ONE_MODIFIED, ALL_MODIFIED
+    }
+
+    public enum Strategy {
+        ABSOLUTE(AbsolutePathFingerprintCompareStrategy.INSTANCE),
+        NORMALIZED(NormalizedPathFingerprintCompareStrategy.INSTANCE);
+
+        private final FingerprintCompareStrategy compareStrategy;
+
+        Strategy(FingerprintCompareStrategy compareStrategy) {
+            this.compareStrategy = compareStrategy;
+        }
+    }
+}
@@ -18,9 +18,7 @@
 
 import org.gradle.internal.execution.history.changes.CompareStrategy.ChangeDetector;
 
-import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Compares by absolute paths and file contents. Order does not matter.
@@ -37,13 +35,14 @@ public AbsolutePathChangeDetector(ItemComparator<S> itemComparator, CompareStrat
 
     @Override
     public boolean visitChangesSince(Map<String, S> previous, Map<String, S> current, String propertyTitle, ChangeVisitor visitor) {
-        Set<String> unaccountedForPreviousItems = new LinkedHashSet<>(previous.keySet());
-
+        // Look up entries in the existing maps instead of copying the previous paths, so large fingerprints don't cause per-entry allocations
+        int accountedForPreviousItems = 0;
         for (Map.Entry<String, S> currentEntry : current.entrySet()) {
             String currentAbsolutePath = currentEntry.getKey();
             S currentItem = currentEntry.getValue();
-            if (unaccountedForPreviousItems.remove(currentAbsolutePath)) {
-                S previousItem = previous.get(currentAbsolutePath);
+            S previousItem = previous.get(currentAbsolutePath);
+            if (previousItem != null) {
+                accountedForPreviousItems++;
                 if (!itemComparator.hasSameContent(previousItem, currentItem)) {
                     Change modified = changeFactory.modified(currentAbsolutePath, propertyTitle, previousItem, currentItem);
                     if (!visitor.visitChange(modified)) {
@@ -59,10 +58,16 @@ public boolean visitChangesSince(Map<String, S> previous, Map<String, S> current
             }
         }
 
-        for (String previousAbsolutePath : unaccountedForPreviousItems) {
-            Change removed = changeFactory.removed(previousAbsolutePath, propertyTitle, previous.get(previousAbsolutePath));
-            if (!visitor.visitChange(removed)) {
-                return false;
+        if (accountedForPreviousItems == previous.size()) {
+            return true;
+        }
+        for (Map.Entry<String, S> previousEntry : previous.entrySet()) {
+            String previousAbsolutePath = previousEntry.getKey();
+            if (!current.containsKey(previousAbsolutePath)) {
+                Change removed = changeFactory.removed(previousAbsolutePath, propertyTitle, previousEntry.getValue());
+                if (!visitor.visitChange(removed)) {
+                    return false;
+                }
             }
         }
         return true;
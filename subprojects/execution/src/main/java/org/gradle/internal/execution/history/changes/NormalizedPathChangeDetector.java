@@ -48,6 +48,10 @@ public enum NormalizedPathChangeDetector implements CompareStrategy.ChangeDetect
     @Override
     public boolean visitChangesSince(Map<String, FileSystemLocationFingerprint> previousFingerprints, Map<String, FileSystemLocationFingerprint> currentFingerprints, String propertyTitle, ChangeVisitor visitor) {
         ListMultimap<FileSystemLocationFingerprint, FilePathWithType> unaccountedForPreviousFiles = getUnaccountedForPreviousFingerprints(previousFingerprints, currentFingerprints.entrySet());
+        if (unaccountedForPreviousFiles.isEmpty() && previousFingerprints.size() == currentFingerprints.size()) {
+            // Every previous entry has an exact match in the current entries, and there are no additional current entries
+            return true;
+        }
         ListMultimap<String, FilePathWithType> addedFilesByNormalizedPath = getAddedFilesByNormalizedPath(currentFingerprints, unaccountedForPreviousFiles, previousFingerprints.entrySet());
 
         Iterator<Entry<FileSystemLocationFingerprint, FilePathWithType>> iterator = unaccountedForPreviousFiles.entries().stream().sorted(comparingByKey()).iterator();
@@ -127,8 +131,9 @@ private static ListMultimap<FileSystemLocationFingerprint, FilePathWithType> get
         Map<String, FileSystemLocationFingerprint> previousFingerprints,
         Set<Entry<String, FileSystemLocationFingerprint>> currentEntries
     ) {
+        // Only entries without an exact match end up in the multimap, so don't size it for all the previous fingerprints
         ListMultimap<FileSystemLocationFingerprint, FilePathWithType> results = MultimapBuilder
-            .hashKeys(previousFingerprints.size())
+            .hashKeys()
             .linkedListValues()
             .build();
         for (Entry<String, FileSystemLocationFingerprint> previousEntry : previousFingerprints.entrySet()) {
@@ -17,20 +17,19 @@
 package org.gradle.internal.execution.history.impl;
 
 import com.google.common.collect.ImmutableSortedMap;
-import org.gradle.internal.RelativePathSupplier;
 import org.gradle.internal.execution.history.OverlappingOutputDetector;
 import org.gradle.internal.execution.history.OverlappingOutputs;
+import org.gradle.internal.file.FileType;
 import org.gradle.internal.snapshot.DirectorySnapshot;
 import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 import org.gradle.internal.snapshot.FileSystemSnapshot;
-import org.gradle.internal.snapshot.MissingFileSnapshot;
-import org.gradle.internal.snapshot.RegularFileSnapshot;
-import org.gradle.internal.snapshot.RelativePathTracker;
-import org.gradle.internal.snapshot.RelativePathTrackingFileSystemSnapshotHierarchyVisitor;
+import org.gradle.internal.snapshot.FileSystemSnapshotHierarchyVisitor;
 import org.gradle.internal.snapshot.SnapshotUtil;
 import org.gradle.internal.snapshot.SnapshotVisitResult;
 
 import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.gradle.internal.snapshot.SnapshotUtil.getRootHashes;
@@ -57,62 +56,63 @@ public OverlappingOutputs detect(ImmutableSortedMap<String, FileSystemSnapshot>
 
     @Nullable
     private static OverlappingOutputs detect(String propertyName, FileSystemSnapshot previous, FileSystemSnapshot before) {
-        Map<String, FileSystemLocationSnapshot> previousIndex = SnapshotUtil.indexByRelativePath(previous);
-        OverlappingOutputsDetectingVisitor outputsDetectingVisitor = new OverlappingOutputsDetectingVisitor(previousIndex);
-        before.accept(new RelativePathTracker(), outputsDetectingVisitor);
-        String overlappingPath = outputsDetectingVisitor.getOverlappingPath();
+        Map<String, FileSystemLocationSnapshot> previousRoots = SnapshotUtil.rootIndex(previous);
+        OverlappingPathFinder overlappingPathFinder = new OverlappingPathFinder(previousRoots);
+        before.accept(overlappingPathFinder);
+        String overlappingPath = overlappingPathFinder.getOverlappingPath();
         return overlappingPath == null ? null : new OverlappingOutputs(propertyName, overlappingPath);
     }
 
-    private static class OverlappingOutputsDetectingVisitor implements RelativePathTrackingFileSystemSnapshotHierarchyVisitor {
-        private final Map<String, FileSystemLocationSnapshot> previousSnapshots;
+    /**
+     * Compares each root with the previous root at the same location.
+     *
+     * Directories are compared child by child, so only the parts of the hierarchy that changed since the last execution are visited.
+     */
+    private static class OverlappingPathFinder implements FileSystemSnapshotHierarchyVisitor {
+        private final Map<String, FileSystemLocationSnapshot> previousRoots;
         private String overlappingPath;
 
-        public OverlappingOutputsDetectingVisitor(Map<String, FileSystemLocationSnapshot> previousSnapshots) {
-            this.previousSnapshots = previousSnapshots;
+        public OverlappingPathFinder(Map<String, FileSystemLocationSnapshot> previousRoots) {
+            this.previousRoots = previousRoots;
         }
 
         @Override
-        public SnapshotVisitResult visitEntry(FileSystemLocationSnapshot snapshot, RelativePathSupplier relativePath) {
-            boolean newContent = snapshot.accept(new FileSystemLocationSnapshot.FileSystemLocationSnapshotTransformer<Boolean>() {
-                @Override
-                public Boolean visitDirectory(DirectorySnapshot directorySnapshot) {
-                    // Check if a new directory appeared. For matching directories don't check content
-                    // hash as we should detect individual entries that are different instead)
-                    return hasNewContent(relativePath, directorySnapshot);
-                }
-
-                @Override
-                public Boolean visitRegularFile(RegularFileSnapshot fileSnapshot) {
-                    // Check if a new file has appeared, or if an existing file's content has changed
-                    return hasNewContent(relativePath, fileSnapshot);
-                }
+        public SnapshotVisitResult visitEntry(FileSystemLocationSnapshot root) {
+            // If the root has gone missing then we don't have overlaps
+            if (root.getType() != FileType.Missing) {
+                overlappingPath = findNewContent(previousRoots.get(root.getAbsolutePath()), root);
+            }
+            return overlappingPath == null
+                ? SnapshotVisitResult.SKIP_SUBTREE
+                : SnapshotVisitResult.TERMINATE;
+        }
 
-                @Override
-                public Boolean visitMissing(MissingFileSnapshot missingSnapshot) {
-                    // If the root has gone missing then we don't have overlaps
-                    if (relativePath.isRoot()) {
-                        return false;
+        @Nullable
+        private static String findNewContent(@Nullable FileSystemLocationSnapshot previous, FileSystemLocationSnapshot current) {
+            // Created since last execution, possibly by another task, or an existing file's content has changed.
+            // This also detects newly added broken symlinks and unreadable files.
+            if (previous == null || !current.isContentUpToDate(previous)) {
+                return current.getAbsolutePath();
+            }
+            // For matching directories don't check content hash as we should detect individual entries that are different instead
+            if (current instanceof DirectorySnapshot && !current.getHash().equals(previous.getHash())) {
+                Map<String, FileSystemLocationSnapshot> previousChildren = indexByName(((DirectorySnapshot) previous).getChildren());
+                for (FileSystemLocationSnapshot child : ((DirectorySnapshot) current).getChildren()) {
+                    String overlappingPath = findNewContent(previousChildren.get(child.getName()), child);
+                    if (overlappingPath != null) {
+                        return overlappingPath;
                     }
-                    // Otherwise check for newly added broken symlinks and unreadable files
-                    return hasNewContent(relativePath, missingSnapshot);
                 }
-            });
-            if (newContent) {
-                overlappingPath = snapshot.getAbsolutePath();
-                return SnapshotVisitResult.TERMINATE;
-            } else {
-                return SnapshotVisitResult.CONTINUE;
             }
+            return null;
         }
 
-        private boolean hasNewContent(RelativePathSupplier relativePath, FileSystemLocationSnapshot snapshot) {
-            FileSystemLocationSnapshot previousSnapshot = previousSnapshots.get(relativePath.toRelativePath());
-            // Created since last execution, possibly by another task
-            if (previousSnapshot == null) {
-                return true;
+        private static Map<String, FileSystemLocationSnapshot> indexByName(List<FileSystemLocationSnapshot> children) {
+            Map<String, FileSystemLocationSnapshot> index = new HashMap<>(children.size() * 4 / 3 + 1);
+            for (FileSystemLocationSnapshot child : children) {
+                index.put(child.getName(), child);
             }
-            return !snapshot.isContentUpToDate(previousSnapshot);
+            return index;
         }
 
         @Nullable
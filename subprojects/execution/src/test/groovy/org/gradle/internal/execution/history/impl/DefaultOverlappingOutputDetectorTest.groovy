@@ -82,4 +82,30 @@ class DefaultOverlappingOutputDetectorTest extends Specification {
         "directory"      | new DirectorySnapshot("/absolute/path", "path", AccessType.DIRECT, TestHashCodes.hashCodeFrom(123), [])
         "broken symlink" | new MissingFileSnapshot("/absolute/path", "path", AccessType.VIA_SYMLINK)
     }
+
+    def "only visits directories which changed since the previous execution"() {
+        def unchangedFile = new RegularFileSnapshot("/absolute/unchanged/file", "file", TestHashCodes.hashCodeFrom(1), DefaultFileMetadata.file(0L, 0L, AccessType.DIRECT))
+        // The hash of a directory covers all of its content, so a new entry below a directory with the same hash is never looked at
+        def notVisitedEntry = new RegularFileSnapshot("/absolute/unchanged/not-visited", "not-visited", TestHashCodes.hashCodeFrom(2), DefaultFileMetadata.file(0L, 0L, AccessType.DIRECT))
+        def staleFile = new RegularFileSnapshot("/absolute/changed/stale", "stale", TestHashCodes.hashCodeFrom(3), DefaultFileMetadata.file(0L, 0L, AccessType.DIRECT))
+        def previousOutputFiles = ImmutableSortedMap.<String, FileSystemSnapshot> of(
+            "output", new DirectorySnapshot("/absolute", "absolute", AccessType.DIRECT, TestHashCodes.hashCodeFrom(0x1234), [
+                new DirectorySnapshot("/absolute/changed", "changed", AccessType.DIRECT, TestHashCodes.hashCodeFrom(0x10), []),
+                new DirectorySnapshot("/absolute/unchanged", "unchanged", AccessType.DIRECT, TestHashCodes.hashCodeFrom(0x20), [unchangedFile])
+            ])
+        )
+        def outputFilesBeforeExecution = ImmutableSortedMap.<String, FileSystemSnapshot> of(
+            "output", new DirectorySnapshot("/absolute", "absolute", AccessType.DIRECT, TestHashCodes.hashCodeFrom(0x5678), [
+                new DirectorySnapshot("/absolute/changed", "changed", AccessType.DIRECT, TestHashCodes.hashCodeFrom(0x11), [staleFile]),
+                new DirectorySnapshot("/absolute/unchanged", "unchanged", AccessType.DIRECT, TestHashCodes.hashCodeFrom(0x20), [notVisitedEntry, unchangedFile])
+            ])
+        )
+
+        when:
+        def overlaps = detector.detect(previousOutputFiles, outputFilesBeforeExecution)
+
+        then:
+        overlaps.propertyName == "output"
+        overlaps.overlappedFilePath == "/absolute/changed/stale"
+    }
 }
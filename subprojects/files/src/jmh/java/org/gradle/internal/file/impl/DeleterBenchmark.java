@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.file.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Deletes the contents of deep and wide directory hierarchies, with and without a deletion executor.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class DeleterBenchmark {
+
+    @Param({"DEEP", "WIDE"})
+    Shape shape;
+
+    @Param({"0", "4", "8"})
+    int parallelism;
+
+    private File root;
+    private ExecutorService pool;
+    private DefaultDeleter deleter;
+
+    @Setup(Level.Trial)
+    public void setupDeleter() throws IOException {
+        root = Files.createTempDirectory("deleter-benchmark").toFile();
+        pool = parallelism == 0 ? null : Executors.newFixedThreadPool(parallelism);
+        deleter = new DefaultDeleter(System::currentTimeMillis, file -> Files.isSymbolicLink(file.toPath()), false, pool, parallelism);
+    }
+
+    @Setup(Level.Invocation)
+    public void createHierarchy() throws IOException {
+        switch (shape) {
+            case DEEP:
+                // 6 levels with 4 subdirectories and 20 files each: ~100k files
+                createHierarchy(root, 6, 4, 20);
+                break;
+            case WIDE:
+                // 300 subdirectories with 301 files each: ~90k files
+                createHierarchy(root, 1, 300, 1);
+                break;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        deleter.deleteRecursively(root);
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public boolean ensureEmptyDirectory() throws IOException {
+        return deleter.ensureEmptyDirectory(root);
+    }
+
+    private static void createHierarchy(File directory, int depth, int subdirectories, int files) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Couldn't create " + directory);
+        }
+        for (int i = 0; i < files; i++) {
+            Files.write(new File(directory, "file" + i + ".txt").toPath(), new byte[]{(byte) i});
+        }
+        if (depth > 0) {
+            for (int i = 0; i < subdirectories; i++) {
+                createHierarchy(new File(directory, "dir" + i), depth - 1, subdirectories, files);
+            }
+        } else if (files == 1) {
+            for (int i = 0; i < subdirectories; i++) {
+                Files.write(new File(directory, "leaf" + i + ".txt").toPath(), new byte[0]);
+            }
+        }
+    }
+
+    public enum Shape {
+        DEEP, WIDE
+    }
+}
@@ -20,13 +20,21 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 
@@ -37,9 +45,22 @@ public class DefaultDeleter implements Deleter {
     private final LongSupplier timeProvider;
     private final Predicate<? super File> isSymlink;
     private final boolean runGcOnFailedDelete;
+    @Nullable
+    private final Executor deletionExecutor;
+    private final int parallelism;
+    // Marks the threads of the deletion executor which are deleting entries for this deleter
+    private final ThreadLocal<Boolean> deletingInExecutor = new ThreadLocal<Boolean>();
 
     private static final int DELETE_RETRY_SLEEP_MILLIS = 10;
 
+    /**
+     * Directories with fewer entries are deleted on the current thread.
+     */
+    @VisibleForTesting
+    static final int MIN_ENTRIES_TO_DELETE_IN_PARALLEL = 64;
+
+    private static final int ENTRIES_PER_BATCH = 32;
+
     @VisibleForTesting
     static final int MAX_REPORTED_PATHS = 16;
 
@@ -49,9 +70,22 @@ public class DefaultDeleter implements Deleter {
     static final String HELP_NEW_CHILDREN = "New files were found. This might happen because a process is still writing to the target directory.";
 
     public DefaultDeleter(LongSupplier timeProvider, Predicate<? super File> isSymlink, boolean runGcOnFailedDelete) {
+        this(timeProvider, isSymlink, runGcOnFailedDelete, null, 1);
+    }
+
+    /**
+     * Creates a deleter which deletes large directories using the given executor.
+     *
+     * The calling thread deletes entries as well, and at most {@code parallelism - 1} tasks are handed to the executor for a directory.
+     * Threads of the executor delete the entries of nested directories themselves, so they never wait for other tasks.
+     * Without an executor, everything is deleted on the calling thread.
+     */
+    public DefaultDeleter(LongSupplier timeProvider, Predicate<? super File> isSymlink, boolean runGcOnFailedDelete, @Nullable Executor deletionExecutor, int parallelism) {
         this.timeProvider = timeProvider;
         this.isSymlink = isSymlink;
         this.runGcOnFailedDelete = runGcOnFailedDelete;
+        this.deletionExecutor = deletionExecutor;
+        this.parallelism = parallelism;
     }
 
     @Override
@@ -108,7 +142,7 @@ public boolean delete(File target) throws IOException {
     private boolean deleteRecursively(File root, Handling handling) throws IOException {
         LOGGER.debug("Deleting {}", root);
         long startTime = timeProvider.getAsLong();
-        Collection<String> failedPaths = new ArrayList<String>();
+        Collection<String> failedPaths = new ConcurrentLinkedQueue<String>();
         boolean attemptedToRemoveAnything = deleteRecursively(startTime, root, root, handling, failedPaths);
         if (!failedPaths.isEmpty()) {
             throwWithHelpMessage(startTime, root, handling, failedPaths, false);
@@ -126,10 +160,13 @@ private boolean deleteRecursively(long startTime, File baseDir, File file, Handl
                 return false;
             }
 
-            boolean attemptedToDeleteAnything = false;
-            for (File item : contents) {
-                deleteRecursively(startTime, baseDir, item, handling.getDescendantHandling(), failedPaths);
-                attemptedToDeleteAnything = true;
+            boolean attemptedToDeleteAnything = contents.length > 0;
+            if (deletionExecutor != null && parallelism > 1 && contents.length >= MIN_ENTRIES_TO_DELETE_IN_PARALLEL && deletingInExecutor.get() == null) {
+                deleteInParallel(new ParallelDeletion(startTime, baseDir, contents, handling.getDescendantHandling(), failedPaths));
+            } else {
+                for (File item : contents) {
+                    deleteRecursively(startTime, baseDir, item, handling.getDescendantHandling(), failedPaths);
+                }
             }
 
             if (handling.shouldKeepEntry()) {
@@ -141,13 +178,102 @@ private boolean deleteRecursively(long startTime, File baseDir, File file, Handl
             failedPaths.add(file.getAbsolutePath());
 
             // Fail fast
-            if (failedPaths.size() == MAX_REPORTED_PATHS) {
+            if (failedPaths.size() >= MAX_REPORTED_PATHS) {
                 throwWithHelpMessage(startTime, baseDir, handling, failedPaths, true);
             }
         }
         return true;
     }
 
+    private void deleteInParallel(final ParallelDeletion deletion) throws IOException {
+        int tasks = Math.min(parallelism - 1, deletion.batchCount - 1);
+        for (int i = 0; i < tasks; i++) {
+            try {
+                deletionExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        deletingInExecutor.set(Boolean.TRUE);
+                        try {
+                            deletion.deleteBatches();
+                        } finally {
+                            deletingInExecutor.remove();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // The executor is stopping, so delete the remaining entries on this thread
+                break;
+            }
+        }
+        deletion.deleteBatches();
+        deletion.awaitCompletion();
+    }
+
+    /**
+     * The entries of a directory, split into batches which are deleted by whichever thread takes them first.
+     *
+     * Only batches which have been taken by a running thread are waited for, so waiting never depends on the executor having a free thread.
+     */
+    private class ParallelDeletion {
+        private final long startTime;
+        private final File baseDir;
+        private final Handling handling;
+        private final Collection<String> failedPaths;
+        private final Queue<List<File>> batches = new ConcurrentLinkedQueue<List<File>>();
+        private final int batchCount;
+        private final CountDownLatch completed;
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        ParallelDeletion(long startTime, File baseDir, File[] entries, Handling handling, Collection<String> failedPaths) {
+            this.startTime = startTime;
+            this.baseDir = baseDir;
+            this.handling = handling;
+            this.failedPaths = failedPaths;
+            List<File> allEntries = Arrays.asList(entries);
+            for (int start = 0; start < entries.length; start += ENTRIES_PER_BATCH) {
+                batches.add(allEntries.subList(start, Math.min(start + ENTRIES_PER_BATCH, entries.length)));
+            }
+            this.batchCount = batches.size();
+            this.completed = new CountDownLatch(batchCount);
+        }
+
+        void deleteBatches() {
+            List<File> batch;
+            while ((batch = batches.poll()) != null) {
+                try {
+                    if (failure.get() == null) {
+                        for (File entry : batch) {
+                            deleteRecursively(startTime, baseDir, entry, handling, failedPaths);
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    completed.countDown();
+                }
+            }
+        }
+
+        void awaitCompletion() throws IOException {
+            try {
+                completed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while deleting " + baseDir, e);
+            }
+            Throwable t = failure.get();
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            } else if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            } else if (t instanceof Error) {
+                throw (Error) t;
+            } else if (t != null) {
+                throw new IOException(t);
+            }
+        }
+    }
+
     private boolean shouldRemoveContentsOf(File file, Handling handling) {
         return file.isDirectory() && (handling.shouldFollowLinkedDirectory() || !isSymlink.test(file));
     }
@@ -197,12 +323,14 @@ private String buildHelpMessageForFailedDelete(long startTime, File file, Handli
         if (shouldRemoveContentsOf(file, handling)) {
             String absolutePath = file.getAbsolutePath();
             failedPaths.remove(absolutePath);
-            if (!failedPaths.isEmpty()) {
+            // Several parallel deletions can fail before the first one reports, so only list up to the limit
+            List<String> reportedPaths = new ArrayList<String>(failedPaths);
+            if (!reportedPaths.isEmpty()) {
                 help.append("\n  ").append(HELP_FAILED_DELETE_CHILDREN);
-                for (String failed : failedPaths) {
+                for (String failed : reportedPaths.subList(0, Math.min(reportedPaths.size(), MAX_REPORTED_PATHS))) {
                     help.append("\n  - ").append(failed);
                 }
-                if (more) {
+                if (more || reportedPaths.size() > MAX_REPORTED_PATHS) {
                     help.append("\n  - and more ...");
                 }
             }
@@ -24,6 +24,9 @@ import org.junit.Rule
 import spock.lang.Specification
 
 import java.nio.file.Files
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
 import java.util.function.Function
 
 import static org.gradle.util.internal.TextUtil.normaliseLineSeparators
@@ -136,6 +139,69 @@ class DefaultDeleterTest extends Specification {
         didWork
     }
 
+    def "deletes large directory hierarchies in parallel"() {
+        given:
+        def pool = Executors.newFixedThreadPool(4)
+        deleter = new DefaultDeleter(
+            { System.currentTimeMillis() },
+            { File file -> Files.isSymbolicLink(file.toPath()) },
+            false,
+            pool,
+            4
+        )
+        TestFile dir = tmpDir.createDir("target")
+        def entriesPerDirectory = DefaultDeleter.MIN_ENTRIES_TO_DELETE_IN_PARALLEL * 2
+        (1..entriesPerDirectory).each { i ->
+            dir.file("file-${i}.txt").createFile()
+            if (i % 16 == 0) {
+                (1..entriesPerDirectory).each { j ->
+                    dir.file("dir-${i}/nested/file-${j}.txt").createFile()
+                }
+            }
+        }
+
+        when:
+        boolean didWork = deleter.ensureEmptyDirectory(dir)
+
+        then:
+        dir.assertIsEmptyDir()
+        didWork
+
+        cleanup:
+        pool.shutdown()
+    }
+
+    def "deletes large directory hierarchies when all threads of the executor are busy"() {
+        given:
+        def pool = Executors.newFixedThreadPool(1)
+        def release = new CountDownLatch(1)
+        pool.execute { release.await() }
+        deleter = new DefaultDeleter(
+            { System.currentTimeMillis() },
+            { File file -> Files.isSymbolicLink(file.toPath()) },
+            false,
+            pool,
+            2
+        )
+        TestFile dir = tmpDir.createDir("target")
+        def entriesPerDirectory = DefaultDeleter.MIN_ENTRIES_TO_DELETE_IN_PARALLEL * 2
+        (1..entriesPerDirectory).each { i ->
+            dir.file("dir-${i % 2}/file-${i}.txt").createFile()
+            dir.file("file-${i}.txt").createFile()
+        }
+
+        when:
+        boolean didWork = deleter.ensureEmptyDirectory(dir)
+
+        then:
+        dir.assertIsEmptyDir()
+        didWork
+
+        cleanup:
+        release.countDown()
+        pool.shutdown()
+    }
+
     def "didWork is false when nothing has been deleted"() {
         given:
         TestFile dir = tmpDir.file("unknown")
@@ -332,6 +398,43 @@ class DefaultDeleterTest extends Specification {
         normalizedMessage.readLines().size() == DefaultDeleter.MAX_REPORTED_PATHS * 2 + 5
     }
 
+    def "reports a capped number of paths when parallel deletions fail"() {
+        given:
+        def pool = Executors.newFixedThreadPool(4)
+        def failures = new CountDownLatch(4)
+        deleter = new DefaultDeleter(
+            { System.currentTimeMillis() },
+            { File file -> Files.isSymbolicLink(file.toPath()) },
+            false,
+            pool,
+            4
+        ) {
+            @Override
+            protected boolean deleteFile(File file) {
+                // Let several batches fail before any of them reports
+                failures.countDown()
+                failures.await(1, TimeUnit.SECONDS)
+                return false
+            }
+        }
+        TestFile dir = tmpDir.createDir("target")
+        (1..DefaultDeleter.MIN_ENTRIES_TO_DELETE_IN_PARALLEL * 4).each { i ->
+            dir.file("file-${i}.txt").createFile()
+        }
+
+        when:
+        deleter.ensureEmptyDirectory(dir)
+
+        then:
+        def ex = thrown IOException
+        def lines = normaliseLineSeparators(ex.message).readLines()
+        lines.count { it.startsWith("  - ") && it.endsWith(".txt") } <= DefaultDeleter.MAX_REPORTED_PATHS
+        lines.contains("  - and more ...")
+
+        cleanup:
+        pool.shutdown()
+    }
+
     class FileTime {
 
         static long oldTime = 1000
@@ -36,13 +36,18 @@
 public class KeyringFilePublicKeyService implements PublicKeyService {
     private final static Logger LOGGER = Logging.getLogger(KeyringFilePublicKeyService.class);
     private final File keyRingFile;
-    private LoadedKeys keys;
+    private volatile LoadedKeys keys;
 
     public KeyringFilePublicKeyService(File keyRingFile) {
         this.keyRingFile = keyRingFile;
     }
 
     private LoadedKeys load() {
+        LoadedKeys loaded = keys;
+        if (loaded != null) {
+            // Keys are looked up concurrently by the verification of each artifact, so avoid locking once they are loaded
+            return loaded;
+        }
         synchronized (this) {
             if (keys == null) {
                 try {
@@ -16,6 +16,7 @@
 
 package org.gradle.internal.snapshot;
 
+import javax.annotation.Nullable;
 import java.nio.file.Path;
 
 public interface SnapshottingFilter {
@@ -40,6 +41,18 @@ public DirectoryWalkerPredicate getAsDirectoryWalkerPredicate() {
     FileSystemSnapshotPredicate getAsSnapshotPredicate();
     DirectoryWalkerPredicate getAsDirectoryWalkerPredicate();
 
+    /**
+     * A key identifying the behavior of this filter.
+     *
+     * Filters with equal keys keep the same locations of the same snapshot,
+     * so the result of filtering an unchanged snapshot can be reused.
+     * Returns {@code null} when the filter cannot be identified, e.g. when it depends on more than the paths and types of the filtered locations.
+     */
+    @Nullable
+    default Object getCacheKey() {
+        return null;
+    }
+
     interface DirectoryWalkerPredicate {
         boolean test(Path path, String name, boolean isDirectory, Iterable<String> relativePath);
     }
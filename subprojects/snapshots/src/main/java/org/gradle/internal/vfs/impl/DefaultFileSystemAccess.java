@@ -16,6 +16,8 @@
 
 package org.gradle.internal.vfs.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Interner;
 import com.google.common.util.concurrent.Striped;
@@ -40,6 +42,7 @@
 
 import java.io.File;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.locks.Lock;
 import java.util.function.Function;
@@ -47,6 +50,7 @@
 
 public class DefaultFileSystemAccess implements FileSystemAccess, FileSystemDefaultExcludesListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultFileSystemAccess.class);
+    private static final int MAX_FILTERED_SNAPSHOTS = 10_000;
 
     private final VirtualFileSystem virtualFileSystem;
     private final Stat stat;
@@ -57,6 +61,10 @@ public class DefaultFileSystemAccess implements FileSystemAccess, FileSystemDefa
     private DirectorySnapshotter directorySnapshotter;
     private final FileHasher hasher;
     private final StripedProducerGuard<String> producingSnapshots = new StripedProducerGuard<>();
+    private final Cache<FilteredSnapshotKey, FilteredSnapshot> filteredSnapshots = CacheBuilder.newBuilder()
+        .maximumSize(MAX_FILTERED_SNAPSHOTS)
+        .softValues()
+        .build();
 
     public DefaultFileSystemAccess(
         FileHasher hasher,
@@ -124,7 +132,7 @@ public Optional<FileSystemLocationSnapshot> read(String location, SnapshottingFi
             return Optional.of(read(location));
         } else {
             FileSystemSnapshot filteredSnapshot = readSnapshotFromLocation(location,
-                snapshot -> FileSystemSnapshotFilter.filterSnapshot(filter.getAsSnapshotPredicate(), snapshot),
+                snapshot -> filterSnapshot(snapshot, filter),
                 () -> {
                     FileSystemLocationSnapshot snapshot = snapshot(location, filter);
                     return snapshot.getType() == FileType.Directory
@@ -141,6 +149,27 @@ public Optional<FileSystemLocationSnapshot> read(String location, SnapshottingFi
         }
     }
 
+    /**
+     * Filters a snapshot stored in the VFS, reusing the previous result when nothing changed.
+     *
+     * The VFS hands out the same snapshot instance for a location until something in its hierarchy is invalidated,
+     * so the identity of the unfiltered snapshot tells whether a previously filtered result is still up-to-date.
+     */
+    private FileSystemSnapshot filterSnapshot(FileSystemLocationSnapshot unfilteredSnapshot, SnapshottingFilter filter) {
+        Object filterKey = filter.getCacheKey();
+        if (filterKey == null) {
+            return FileSystemSnapshotFilter.filterSnapshot(filter.getAsSnapshotPredicate(), unfilteredSnapshot);
+        }
+        FilteredSnapshotKey key = new FilteredSnapshotKey(unfilteredSnapshot.getAbsolutePath(), filterKey);
+        FilteredSnapshot previous = filteredSnapshots.getIfPresent(key);
+        if (previous != null && previous.unfilteredSnapshot == unfilteredSnapshot) {
+            return previous.filteredSnapshot;
+        }
+        FileSystemSnapshot filteredSnapshot = FileSystemSnapshotFilter.filterSnapshot(filter.getAsSnapshotPredicate(), unfilteredSnapshot);
+        filteredSnapshots.put(key, new FilteredSnapshot(unfilteredSnapshot, filteredSnapshot));
+        return filteredSnapshot;
+    }
+
     private FileSystemLocationSnapshot snapshot(String location, SnapshottingFilter filter) {
         return virtualFileSystem.store(location, vfsStorer -> {
             File file = new File(location);
@@ -208,6 +237,44 @@ public void onDefaultExcludesChanged(List<String> excludes) {
             defaultExcludes = newDefaultExcludes;
             directorySnapshotter = new DirectorySnapshotter(hasher, stringInterner, newDefaultExcludes, statisticsCollector);
             virtualFileSystem.invalidateAll();
+            filteredSnapshots.invalidateAll();
+        }
+    }
+
+    private static class FilteredSnapshotKey {
+        private final String location;
+        private final Object filterKey;
+
+        public FilteredSnapshotKey(String location, Object filterKey) {
+            this.location = location;
+            this.filterKey = filterKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FilteredSnapshotKey that = (FilteredSnapshotKey) o;
+            return location.equals(that.location) && filterKey.equals(that.filterKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(location, filterKey);
+        }
+    }
+
+    private static class FilteredSnapshot {
+        private final FileSystemLocationSnapshot unfilteredSnapshot;
+        private final FileSystemSnapshot filteredSnapshot;
+
+        public FilteredSnapshot(FileSystemLocationSnapshot unfilteredSnapshot, FileSystemSnapshot filteredSnapshot) {
+            this.unfilteredSnapshot = unfilteredSnapshot;
+            this.filteredSnapshot = filteredSnapshot;
         }
     }
 
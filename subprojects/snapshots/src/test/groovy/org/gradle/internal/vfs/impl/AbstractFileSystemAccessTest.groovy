@@ -161,9 +161,11 @@ abstract class AbstractFileSystemAccessTest extends Specification {
 
     static class FileNameFilter implements SnapshottingFilter {
         private final Predicate<String> predicate
+        private final Object cacheKey
 
-        FileNameFilter(Predicate<String> predicate) {
+        FileNameFilter(Predicate<String> predicate, Object cacheKey = null) {
             this.predicate = predicate
+            this.cacheKey = cacheKey
         }
 
         @Override
@@ -171,6 +173,11 @@ abstract class AbstractFileSystemAccessTest extends Specification {
             return false
         }
 
+        @Override
+        Object getCacheKey() {
+            return cacheKey
+        }
+
         @Override
         FileSystemSnapshotPredicate getAsSnapshotPredicate() {
             return new FileSystemSnapshotPredicate() {
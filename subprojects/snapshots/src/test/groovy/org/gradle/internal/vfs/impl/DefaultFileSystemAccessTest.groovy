@@ -246,4 +246,36 @@ class DefaultFileSystemAccessTest extends AbstractFileSystemAccessTest {
         then: "The filtered tree uses the cached state"
         relativePaths as Set == ["d1", "d1/f1", "f1"] as Set
     }
+
+    def "reuses filtered trees while the unfiltered tree is unchanged"() {
+        given:
+        def d = temporaryFolder.createDir("d")
+        d.file("f1").createFile()
+        d.file("d1/f1").createFile()
+        d.file("d1/f2").createFile()
+
+        allowFileSystemAccess(true)
+        read(d)
+
+        when:
+        def first = read(d, new FileNameFilter({ it.endsWith('1') }, "ends with 1"))
+        def second = read(d, new FileNameFilter({ it.endsWith('1') }, "ends with 1"))
+        then:
+        second.is(first)
+
+        when:
+        def withoutKey = read(d, new FileNameFilter({ it.endsWith('1') }))
+        then:
+        !withoutKey.is(first)
+        SnapshotVisitorUtil.getRelativePaths(withoutKey) as Set == SnapshotVisitorUtil.getRelativePaths(first) as Set
+
+        when:
+        fileSystemAccess.write([d.file("d1/f3").absolutePath]) {
+            d.file("d1/f3").createFile()
+        }
+        read(d)
+        def afterChange = read(d, new FileNameFilter({ it.endsWith('1') }, "ends with 1"))
+        then:
+        !afterChange.is(first)
+    }
 }
@@ -1,9 +1,17 @@
 plugins {
     id("gradlebuild.distribution.api-java")
+    id("gradlebuild.jmh")
 }
 
 gradlebuildJava.usedInWorkers()
 
+/**
+ * Use Java 8 compatibility for JMH benchmarks
+ */
+tasks.named<JavaCompile>("jmhCompileGeneratedClasses") {
+    options.release = 8
+}
+
 description = """Basic testing related plugins, which establish conventions for testing output directories,
 and setup basic testing-related features lik a testSuites container and the testing extension.  It provides most of the
 testing-related abstract base types and interfaces for things like Test tasks, listeners and filters.
@@ -21,6 +29,7 @@ dependencies {
     implementation(project(":core-api"))
     implementation(project(":model-core"))
     implementation(project(":core"))
+    implementation(project(":build-option"))
     implementation(project(":base-services-groovy"))
     implementation(project(":reporting"))
     implementation(project(":platform-base"))
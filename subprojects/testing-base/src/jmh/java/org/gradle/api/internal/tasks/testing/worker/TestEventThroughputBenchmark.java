@@ -0,0 +1,197 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestFailure;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.Cast;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.dispatch.Dispatch;
+import org.gradle.internal.dispatch.MethodInvocation;
+import org.gradle.internal.dispatch.ProxyDispatchAdapter;
+import org.gradle.internal.dispatch.ReflectionDispatch;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.remote.internal.hub.MethodArgsSerializer;
+import org.gradle.internal.remote.internal.hub.MethodInvocationSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.ObjectReader;
+import org.gradle.internal.serialize.ObjectWriter;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many test events per second a fake test worker can send to the build, with and without combining the output events in the worker.
+ *
+ * The events are encoded and decoded the same way as on the connection between a test worker and the build, but without the socket in between.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class TestEventThroughputBenchmark {
+    private static final int TESTS = 100;
+    private static final int OUTPUT_LINES_PER_TEST = 10;
+    private static final int EVENTS = TESTS * (OUTPUT_LINES_PER_TEST + 2);
+    private static final Object CLASS_ID = new CompositeIdGenerator.CompositeId(1L, 1L);
+
+    @Param({"false", "true"})
+    boolean coalesceOutput;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final TestResultProcessor receiver = new TestResultProcessor() {
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+        }
+
+        @Override
+        public void failure(Object testId, TestFailure result) {
+        }
+    };
+    private MethodInvocationSerializer serializer;
+    private ScheduledExecutorService flushExecutor;
+
+    @Setup
+    public void setup() {
+        serializer = new MethodInvocationSerializer(getClass().getClassLoader(), new RegistryBackedMethodArgsSerializer(TestEventSerializer.create()));
+        flushExecutor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @TearDown
+    public void stopFlushExecutor() {
+        flushExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int sendEventsFromFakeWorker() throws Exception {
+        buffer.reset();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(buffer);
+        final ObjectWriter<MethodInvocation> writer = serializer.newWriter(encoder);
+        TestResultProcessor workerResultProcessor = new ProxyDispatchAdapter<TestResultProcessor>(new Dispatch<MethodInvocation>() {
+            @Override
+            public void dispatch(MethodInvocation message) {
+                try {
+                    writer.write(message);
+                } catch (Exception e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }, TestResultProcessor.class).getSource();
+        if (coalesceOutput) {
+            workerResultProcessor = new CoalescingTestResultProcessor(workerResultProcessor, flushExecutor);
+        }
+        runFakeTests(workerResultProcessor);
+        encoder.flush();
+
+        KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(buffer.toByteArray()));
+        ObjectReader<MethodInvocation> reader = serializer.newReader(decoder);
+        ReflectionDispatch dispatch = new ReflectionDispatch(receiver);
+        int messages = 0;
+        while (decoder.getReadPosition() < buffer.size()) {
+            dispatch.dispatch(reader.read());
+            messages++;
+        }
+        return messages;
+    }
+
+    private static void runFakeTests(TestResultProcessor resultProcessor) {
+        for (long test = 0; test < TESTS; test++) {
+            Object testId = new CompositeIdGenerator.CompositeId(1L, test + 2);
+            resultProcessor.started(new DefaultTestDescriptor(testId, "org.gradle.FakeTest", "test" + test), new TestStartEvent(test, CLASS_ID));
+            for (int line = 0; line < OUTPUT_LINES_PER_TEST; line++) {
+                resultProcessor.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "Output line " + line + " of test " + test + "\n"));
+            }
+            resultProcessor.completed(testId, new TestCompleteEvent(test, TestResult.ResultType.SUCCESS));
+        }
+    }
+
+    /**
+     * Serializes the arguments of the test result processor methods with the test event serializers, as the connection to a test worker does.
+     */
+    private static class RegistryBackedMethodArgsSerializer implements MethodArgsSerializer {
+        private final SerializerRegistry registry;
+
+        RegistryBackedMethodArgsSerializer(SerializerRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public Serializer<Object[]> forTypes(Class<?>[] types) {
+            final Serializer<Object>[] serializers = Cast.uncheckedNonnullCast(new Serializer<?>[types.length]);
+            for (int i = 0; i < types.length; i++) {
+                serializers[i] = Cast.uncheckedNonnullCast(registry.build(types[i]));
+            }
+            return new Serializer<Object[]>() {
+                @Override
+                public Object[] read(Decoder decoder) throws Exception {
+                    Object[] arguments = new Object[serializers.length];
+                    for (int i = 0; i < serializers.length; i++) {
+                        arguments[i] = serializers[i].read(decoder);
+                    }
+                    return arguments;
+                }
+
+                @Override
+                public void write(Encoder encoder, Object[] arguments) throws Exception {
+                    for (int i = 0; i < serializers.length; i++) {
+                        serializers[i].write(encoder, arguments[i]);
+                    }
+                }
+            };
+        }
+    }
+}
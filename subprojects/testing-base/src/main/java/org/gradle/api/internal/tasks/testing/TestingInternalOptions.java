@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing;
+
+import org.gradle.internal.buildoption.InternalFlag;
+
+/**
+ * Internal options which change how tests are executed and reported.
+ *
+ * Each of them changes which test classes run, in which order or worker, or the shape of the reported results, so they are all disabled by default.
+ */
+public final class TestingInternalOptions {
+    /**
+     * Lets the test workers pull test classes from a shared queue, instead of assigning the test classes to the workers up front.
+     */
+    public static final InternalFlag PULL_TEST_CLASSES = new InternalFlag("org.gradle.internal.testing.worker.pull-test-classes");
+
+    /**
+     * Starts the first test worker while the test classes are being detected.
+     */
+    public static final InternalFlag START_FIRST_WORKER_EAGERLY = new InternalFlag("org.gradle.internal.testing.worker.start-eagerly");
+
+    /**
+     * Inspects the candidate class files using multiple threads.
+     */
+    public static final InternalFlag PARALLEL_DETECTION = new InternalFlag("org.gradle.internal.testing.detection.parallel");
+
+    /**
+     * Combines consecutive output events of a test into fewer, larger events.
+     */
+    public static final InternalFlag COALESCE_OUTPUT = new InternalFlag("org.gradle.internal.testing.worker.coalesce-output");
+
+    /**
+     * Only runs the test classes affected by the changes since the previous run.
+     */
+    public static final InternalFlag SELECT_AFFECTED_TEST_CLASSES = new InternalFlag("org.gradle.internal.testing.select-affected-test-classes");
+
+    /**
+     * Writes the JUnit XML results of all test classes into a single file.
+     */
+    public static final InternalFlag AGGREGATE_JUNIT_XML_RESULTS = new InternalFlag("org.gradle.internal.testing.junit-xml.aggregate");
+
+    private TestingInternalOptions() {
+    }
+}
@@ -37,9 +37,12 @@
 import java.io.FilenameFilter;
 
 public class Binary2JUnitXmlReportGenerator {
+    @VisibleForTesting
+    static final String AGGREGATED_REPORT_FILE_NAME = "TEST-all.xml";
 
     private final File testResultsDir;
     private final TestResultsProvider testResultsProvider;
+    private final JUnitXmlResultOptions options;
 
     @VisibleForTesting
     JUnitXmlResultWriter xmlWriter;
@@ -50,6 +53,7 @@ public class Binary2JUnitXmlReportGenerator {
     public Binary2JUnitXmlReportGenerator(File testResultsDir, TestResultsProvider testResultsProvider, JUnitXmlResultOptions options, BuildOperationExecutor buildOperationExecutor, String hostName) {
         this.testResultsDir = testResultsDir;
         this.testResultsProvider = testResultsProvider;
+        this.options = options;
         this.xmlWriter = new JUnitXmlResultWriter(hostName, testResultsProvider, options);
         this.buildOperationExecutor = buildOperationExecutor;
     }
@@ -78,6 +82,12 @@ public BuildOperationDescriptor.Builder description() {
             }
         });
 
+        if (options.aggregated) {
+            buildOperationExecutor.run(new AggregatedJUnitXmlReportFileGenerator(new File(testResultsDir, AGGREGATED_REPORT_FILE_NAME), xmlWriter));
+            LOG.info("Finished generating aggregated test XML results ({}) into: {}", clock.getElapsed(), testResultsDir);
+            return;
+        }
+
         buildOperationExecutor.runAll(new Action<BuildOperationQueue<JUnitXmlReportFileGenerator>>() {
             @Override
             public void execute(final BuildOperationQueue<JUnitXmlReportFileGenerator> queue) {
@@ -98,6 +108,35 @@ private String getReportFileName(TestClassResult result) {
         return "TEST-" + FileUtils.toSafeFileName(result.getClassName()) + ".xml";
     }
 
+    private static class AggregatedJUnitXmlReportFileGenerator implements RunnableBuildOperation {
+        private final File reportFile;
+        private final JUnitXmlResultWriter xmlWriter;
+
+        public AggregatedJUnitXmlReportFileGenerator(File reportFile, JUnitXmlResultWriter xmlWriter) {
+            this.reportFile = reportFile;
+            this.xmlWriter = xmlWriter;
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Generate aggregated junit XML test report");
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            FileOutputStream output = null;
+            try {
+                output = new FileOutputStream(reportFile);
+                xmlWriter.writeAll(output);
+                output.close();
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not write XML test results to file %s.", reportFile), e);
+            } finally {
+                IoActions.closeQuietly(output);
+            }
+        }
+    }
+
     private static class JUnitXmlReportFileGenerator implements RunnableBuildOperation {
         private final TestClassResult result;
         private final File reportFile;
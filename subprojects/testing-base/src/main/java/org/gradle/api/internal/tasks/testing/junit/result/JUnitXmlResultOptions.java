@@ -20,9 +20,18 @@ public class JUnitXmlResultOptions {
 
     public final boolean outputPerTestCase;
     public final boolean mergeReruns;
+    /**
+     * Whether the results of all test classes are written to a single file, instead of one file per test class.
+     */
+    public final boolean aggregated;
 
     public JUnitXmlResultOptions(boolean outputPerTestCase, boolean mergeReruns) {
+        this(outputPerTestCase, mergeReruns, false);
+    }
+
+    public JUnitXmlResultOptions(boolean outputPerTestCase, boolean mergeReruns, boolean aggregated) {
         this.outputPerTestCase = outputPerTestCase;
         this.mergeReruns = mergeReruns;
+        this.aggregated = aggregated;
     }
 }
@@ -19,6 +19,7 @@
 import com.google.common.base.Function;
 import com.google.common.collect.Iterables;
 import org.apache.tools.ant.util.DateUtils;
+import org.gradle.api.Action;
 import org.gradle.api.tasks.testing.TestOutputEvent;
 import org.gradle.api.tasks.testing.TestResult;
 import org.gradle.internal.UncheckedException;
@@ -46,46 +47,73 @@ public JUnitXmlResultWriter(String hostName, TestResultsProvider testResultsProv
     }
 
     public void write(TestClassResult result, OutputStream output) {
-        long classId = result.getId();
-
         try {
             SimpleXmlWriter writer = new SimpleXmlWriter(output, "  ");
-            writer.startElement("testsuite")
-                .attribute("name", result.getXmlTestSuiteName())
+            writeTestSuite(result, writer);
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    /**
+     * Writes the results of all test classes as the test suites of a single document.
+     */
+    public void writeAll(OutputStream output) {
+        try {
+            final SimpleXmlWriter writer = new SimpleXmlWriter(output, "  ");
+            writer.startElement("testsuites");
+            testResultsProvider.visitClasses(new Action<TestClassResult>() {
+                @Override
+                public void execute(TestClassResult result) {
+                    try {
+                        writeTestSuite(result, writer);
+                    } catch (IOException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+            });
+            writer.endElement();
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
 
-                // NOTE: these totals are unaffected by “merge reruns” with Surefire, so we do the same
-                .attribute("tests", String.valueOf(result.getTestsCount()))
-                .attribute("skipped", String.valueOf(result.getSkippedCount()))
-                .attribute("failures", String.valueOf(result.getFailuresCount()))
-                .attribute("errors", "0")
+    private void writeTestSuite(TestClassResult result, SimpleXmlWriter writer) throws IOException {
+        long classId = result.getId();
 
-                .attribute("timestamp", DateUtils.format(result.getStartTime(), DateUtils.ISO8601_DATETIME_PATTERN))
-                .attribute("hostname", hostName)
-                .attribute("time", String.valueOf(result.getDuration() / 1000.0));
+        writer.startElement("testsuite")
+            .attribute("name", result.getXmlTestSuiteName())
 
-            writer.startElement("properties");
-            writer.endElement();
+            // NOTE: these totals are unaffected by “merge reruns” with Surefire, so we do the same
+            .attribute("tests", String.valueOf(result.getTestsCount()))
+            .attribute("skipped", String.valueOf(result.getSkippedCount()))
+            .attribute("failures", String.valueOf(result.getFailuresCount()))
+            .attribute("errors", "0")
 
-            Iterable<TestMethodResult> methodResults = result.getResults();
-            String className = result.getClassName();
+            .attribute("timestamp", DateUtils.format(result.getStartTime(), DateUtils.ISO8601_DATETIME_PATTERN))
+            .attribute("hostname", hostName)
+            .attribute("time", String.valueOf(result.getDuration() / 1000.0));
 
-            if (options.mergeReruns) {
-                writeTestCasesWithMergeRerunHandling(writer, methodResults, className, classId);
-            } else {
-                writeTestCasesWithDiscreteRerunHandling(writer, methodResults, className, classId);
-            }
+        writer.startElement("properties");
+        writer.endElement();
 
-            writer.startElement("system-out");
-            writeOutputs(writer, classId, !options.outputPerTestCase, TestOutputEvent.Destination.StdOut);
-            writer.endElement();
-            writer.startElement("system-err");
-            writeOutputs(writer, classId, !options.outputPerTestCase, TestOutputEvent.Destination.StdErr);
-            writer.endElement();
+        Iterable<TestMethodResult> methodResults = result.getResults();
+        String className = result.getClassName();
 
-            writer.endElement();
-        } catch (IOException e) {
-            throw UncheckedException.throwAsUncheckedException(e);
+        if (options.mergeReruns) {
+            writeTestCasesWithMergeRerunHandling(writer, methodResults, className, classId);
+        } else {
+            writeTestCasesWithDiscreteRerunHandling(writer, methodResults, className, classId);
         }
+
+        writer.startElement("system-out");
+        writeOutputs(writer, classId, !options.outputPerTestCase, TestOutputEvent.Destination.StdOut);
+        writer.endElement();
+        writer.startElement("system-err");
+        writeOutputs(writer, classId, !options.outputPerTestCase, TestOutputEvent.Destination.StdErr);
+        writer.endElement();
+
+        writer.endElement();
     }
 
     private void writeOutputs(SimpleXmlWriter writer, long classId, boolean allClassOutput, TestOutputEvent.Destination destination) throws IOException {
@@ -22,8 +22,6 @@
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
 import org.gradle.internal.UncheckedException;
-import org.gradle.internal.io.RandomAccessFileInputStream;
-import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import javax.annotation.Nullable;
@@ -35,11 +33,27 @@
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Stores the output of tests in a data file, along with an index file which holds the region of the data file containing the output of each test class and test.
+ *
+ * Each output event in the data file records the distance to the previous event of the same test class and destination,
+ * so that the output of a test class can be read without reading the output of other test classes in between.
+ */
 public class TestOutputStore {
+    // The maximum length of the header of an output event: a boolean, three variable length longs and a variable length int
+    private static final int MAX_EVENT_HEADER_LENGTH = 1 + 3 * 9 + 5;
 
     private final File resultsDir;
     private final Charset messageStorageCharset;
@@ -81,6 +95,7 @@ public class Writer implements Closeable {
         private final KryoBackedEncoder output;
 
         private final Map<Long, Map<Long, TestCaseRegion>> index = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
+        private final Map<Long, TestCaseRegion> classRegions = new HashMap<Long, TestCaseRegion>();
 
         public Writer() {
             try {
@@ -102,11 +117,12 @@ public void onOutput(long classId, TestOutputEvent outputEvent) {
 
         public void onOutput(long classId, long testId, TestOutputEvent outputEvent) {
             boolean stdout = outputEvent.getDestination() == TestOutputEvent.Destination.StdOut;
-            mark(classId, testId, stdout);
+            long distanceToPreviousEvent = mark(classId, testId, stdout);
 
             output.writeBoolean(stdout);
             output.writeSmallLong(classId);
             output.writeSmallLong(testId);
+            output.writeSmallLong(distanceToPreviousEvent);
 
             byte[] bytes;
             try {
@@ -118,7 +134,10 @@ public void onOutput(long classId, long testId, TestOutputEvent outputEvent) {
             output.writeBytes(bytes, 0, bytes.length);
         }
 
-        private void mark(long classId, long testId, boolean isStdout) {
+        /**
+         * Returns the distance to the previous event of the test class for the given destination, or 0 for the first event.
+         */
+        private long mark(long classId, long testId, boolean isStdout) {
             if (!index.containsKey(classId)) {
                 index.put(classId, new LinkedHashMap<Long, TestCaseRegion>());
             }
@@ -138,6 +157,16 @@ private void mark(long classId, long testId, boolean isStdout) {
                 streamRegion.start = total;
             }
             streamRegion.stop = total;
+
+            TestCaseRegion classRegion = classRegions.get(classId);
+            if (classRegion == null) {
+                classRegion = new TestCaseRegion();
+                classRegions.put(classId, classRegion);
+            }
+            Region classStreamRegion = isStdout ? classRegion.stdOutRegion : classRegion.stdErrRegion;
+            long previousEvent = classStreamRegion.stop;
+            classStreamRegion.stop = total;
+            return previousEvent < 0 ? 0 : total - previousEvent;
         }
 
         private void writeIndex() {
@@ -225,9 +254,13 @@ Index build() {
         }
     }
 
+    /**
+     * Reads the output of tests. The reader can be used concurrently from multiple threads.
+     */
     public class Reader implements Closeable {
         private final Index index;
         private final RandomAccessFile dataFile;
+        private final FileChannel dataChannel;
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -275,6 +308,7 @@ public Reader() {
                 } catch (FileNotFoundException e) {
                     throw new UncheckedIOException(e);
                 }
+                dataChannel = dataFile.getChannel();
             } else { // no outputs file
                 if (indexFile.exists()) {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' does not exist but the index file '%s' does", outputsFile, indexFile));
@@ -282,6 +316,7 @@ public Reader() {
 
                 index = null;
                 dataFile = null;
+                dataChannel = null;
             }
         }
 
@@ -342,47 +377,40 @@ private void doRead(long classId, long testId, boolean allClassOutput, TestOutpu
             boolean ignoreClassLevel = !allClassOutput && testId != 0;
             boolean ignoreTestLevel = !allClassOutput && testId == 0;
 
+            // The buffers are reused for the events, and the messages are decoded straight into the character buffer instead of into strings
+            CharsetDecoder decoder = messageStorageCharset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            ByteBuffer message = ByteBuffer.allocate(0);
+            CharBuffer chars = CharBuffer.allocate(0);
             try {
-                dataFile.seek(region.start);
-                long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
-                while (decoder.getReadPosition() <= maxPos) {
-                    boolean readStdout = decoder.readBoolean();
-                    long readClassId = decoder.readSmallLong();
-                    long readTestId = decoder.readSmallLong();
-                    int readLength = decoder.readSmallInt();
-
-                    boolean isClassLevel = readTestId == 0;
-
-                    if (stdout != readStdout || classId != readClassId) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
+                List<EventHeader> events = readEventHeaders(region);
+                for (int i = events.size() - 1; i >= 0; i--) {
+                    EventHeader event = events.get(i);
+                    boolean isClassLevel = event.testId == 0;
 
                     if (ignoreClassLevel && isClassLevel) {
-                        decoder.skipBytes(readLength);
                         continue;
                     }
 
                     if (ignoreTestLevel && !isClassLevel) {
-                        decoder.skipBytes(readLength);
                         continue;
                     }
 
-                    if (testId == 0 || testId == readTestId) {
-                        byte[] stringBytes = new byte[readLength];
-                        decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
+                    if (testId == 0 || testId == event.testId) {
+                        if (message.capacity() < event.messageLength) {
+                            message = ByteBuffer.allocate(event.messageLength);
+                            chars = CharBuffer.allocate((int) Math.ceil(event.messageLength * (double) decoder.maxCharsPerByte()));
                         }
-
-                        writer.write(message);
-                    } else {
-                        decoder.skipBytes(readLength);
+                        message.clear();
+                        message.limit(event.messageLength);
+                        readFully(message, event.position + event.headerLength);
+                        message.flip();
+                        chars.clear();
+                        decoder.reset();
+                        decoder.decode(message, chars, true);
+                        decoder.flush(chars);
+                        writer.write(chars.array(), 0, chars.position());
                     }
                 }
             } catch (IOException e1) {
@@ -390,6 +418,39 @@ private void doRead(long classId, long testId, boolean allClassOutput, TestOutpu
             }
         }
 
+        /**
+         * Reads the headers of the events in the given region, starting with the last event and following the distances to the previous events of the same test class and destination.
+         */
+        private List<EventHeader> readEventHeaders(Region region) throws IOException {
+            List<EventHeader> events = new ArrayList<EventHeader>();
+            ByteBuffer buffer = ByteBuffer.allocate(MAX_EVENT_HEADER_LENGTH);
+            long position = region.stop;
+            while (true) {
+                buffer.clear();
+                int length = readFully(buffer, position);
+                Input input = new Input(buffer.array(), 0, length);
+                input.readBoolean();
+                input.readLong(true);
+                long testId = input.readLong(true);
+                long distanceToPreviousEvent = input.readLong(true);
+                int messageLength = input.readInt(true);
+                events.add(new EventHeader(position, input.position(), testId, messageLength));
+                if (distanceToPreviousEvent == 0 || position - distanceToPreviousEvent < region.start) {
+                    return events;
+                }
+                position -= distanceToPreviousEvent;
+            }
+        }
+
+        private int readFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (dataChannel.read(buffer, position + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            return buffer.position();
+        }
+
         @Nullable
         private Index getIndex(long classId, long testId) {
             Index targetIndex = index.children.get(classId);
@@ -400,6 +461,20 @@ private Index getIndex(long classId, long testId) {
         }
     }
 
+    private static class EventHeader {
+        final long position;
+        final int headerLength;
+        final long testId;
+        final int messageLength;
+
+        private EventHeader(long position, int headerLength, long testId, int messageLength) {
+            this.position = position;
+            this.headerLength = headerLength;
+            this.testId = testId;
+            this.messageLength = messageLength;
+        }
+    }
+
     // IMPORTANT: return must be closed when done with.
     public Reader reader() {
         return new Reader();
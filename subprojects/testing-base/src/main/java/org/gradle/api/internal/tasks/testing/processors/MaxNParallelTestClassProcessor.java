@@ -28,27 +28,50 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * processors, unless the durations of the test classes are known from a previous run. In that case each test class is
+ * assigned to the processor with the least estimated amount of work assigned so far.
+ *
+ * When pulling test classes, the test classes are not assigned up front. Instead, they are put in a queue shared by all processors,
+ * from which each processor takes the next test class whenever it accepts one. This requires processors which only accept a test class
+ * when they have the capacity to run it, so that an idle processor picks up the remaining test classes rather than a busy one.
+ *
+ * When starting the first processor eagerly, the first processor is created and started as soon as processing starts, rather than when
+ * the first test class arrives, so that its startup overlaps with detecting the test classes. It is started even if no test classes arrive.
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final PreviousTestClassDurations durations;
+    private final boolean pullTestClasses;
+    private final boolean startFirstProcessorEagerly;
+    private final Queue<TestClassRunInfo> pendingTestClasses = new ConcurrentLinkedQueue<TestClassRunInfo>();
     private TestResultProcessor resultProcessor;
     private int pos;
+    private List<Long> estimatedWork = new ArrayList<Long>();
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<TestClassProcessor> rawProcessors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
     private Actor resultProcessorActor;
+    private boolean firstProcessorIdle;
     private volatile boolean stoppedNow;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, PreviousTestClassDurations.NONE, false, false);
+    }
+
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, PreviousTestClassDurations durations, boolean pullTestClasses, boolean startFirstProcessorEagerly) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.durations = durations;
+        this.pullTestClasses = pullTestClasses;
+        this.startFirstProcessorEagerly = startFirstProcessorEagerly;
     }
 
     @Override
@@ -56,6 +79,11 @@ public void startProcessing(TestResultProcessor resultProcessor) {
         // Create a processor that processes events in its own thread
         resultProcessorActor = actorFactory.createActor(resultProcessor);
         this.resultProcessor = resultProcessorActor.getProxy(TestResultProcessor.class);
+
+        if (startFirstProcessorEagerly) {
+            addProcessor();
+            firstProcessorIdle = true;
+        }
     }
 
     @Override
@@ -64,22 +92,54 @@ public void processTestClass(TestClassRunInfo testClass) {
             return;
         }
 
+        if (pullTestClasses) {
+            pendingTestClasses.add(testClass);
+        }
+
         TestClassProcessor processor;
-        if (processors.size() < maxProcessors) {
-            processor = factory.create();
-            rawProcessors.add(processor);
-            Actor actor = actorFactory.createActor(processor);
-            processor = actor.getProxy(TestClassProcessor.class);
-            actors.add(actor);
-            processors.add(processor);
-            processor.startProcessing(resultProcessor);
-        } else {
+        if (firstProcessorIdle) {
+            firstProcessorIdle = false;
+            processor = processors.get(0);
+            estimatedWork.set(0, durations.estimate(testClass.getTestClassName()));
+        } else if (processors.size() < maxProcessors) {
+            processor = addProcessor();
+            estimatedWork.set(processors.size() - 1, durations.estimate(testClass.getTestClassName()));
+        } else if (pullTestClasses || durations.isEmpty()) {
             processor = processors.get(pos);
             pos = (pos + 1) % processors.size();
+        } else {
+            int leastLoaded = leastLoadedProcessor();
+            processor = processors.get(leastLoaded);
+            estimatedWork.set(leastLoaded, estimatedWork.get(leastLoaded) + durations.estimate(testClass.getTestClassName()));
         }
         processor.processTestClass(testClass);
     }
 
+    private TestClassProcessor addProcessor() {
+        TestClassProcessor processor = factory.create();
+        rawProcessors.add(processor);
+        Actor actor = actorFactory.createActor(pullTestClasses ? new PullingTestClassProcessor(processor) : processor);
+        processor = actor.getProxy(TestClassProcessor.class);
+        actors.add(actor);
+        processors.add(processor);
+        estimatedWork.add(0L);
+        processor.startProcessing(resultProcessor);
+        return processor;
+    }
+
+    private int leastLoadedProcessor() {
+        // Start looking at the processor after the last one chosen, so that work with no estimated duration is still spread across processors
+        int leastLoaded = pos;
+        for (int i = 1; i < processors.size(); i++) {
+            int candidate = (pos + i) % processors.size();
+            if (estimatedWork.get(candidate) < estimatedWork.get(leastLoaded)) {
+                leastLoaded = candidate;
+            }
+        }
+        pos = (leastLoaded + 1) % processors.size();
+        return leastLoaded;
+    }
+
     @Override
     public void stop() {
         try {
@@ -92,8 +152,45 @@ public void stop() {
     @Override
     public void stopNow() {
         stoppedNow = true;
+        pendingTestClasses.clear();
         for (TestClassProcessor processor : rawProcessors) {
             processor.stopNow();
         }
     }
+
+    /**
+     * Takes test classes from the shared queue for as long as there are any. The test class passed to this processor only signals that
+     * there is work available, as it may already have been taken by another processor.
+     */
+    private class PullingTestClassProcessor implements TestClassProcessor {
+        private final TestClassProcessor delegate;
+
+        PullingTestClassProcessor(TestClassProcessor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void startProcessing(TestResultProcessor resultProcessor) {
+            delegate.startProcessing(resultProcessor);
+        }
+
+        @Override
+        public void processTestClass(TestClassRunInfo testClass) {
+            TestClassRunInfo next = pendingTestClasses.poll();
+            while (next != null && !stoppedNow) {
+                delegate.processTestClass(next);
+                next = pendingTestClasses.poll();
+            }
+        }
+
+        @Override
+        public void stop() {
+            delegate.stop();
+        }
+
+        @Override
+        public void stopNow() {
+            delegate.stopNow();
+        }
+    }
 }
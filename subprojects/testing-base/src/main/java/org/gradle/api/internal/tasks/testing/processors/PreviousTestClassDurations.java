@@ -0,0 +1,60 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The durations of test classes recorded by a previous run, used to estimate how long a test class will take.
+ *
+ * Test classes which were not part of the previous run are estimated to take the average duration of the previous run.
+ */
+public class PreviousTestClassDurations {
+    public static final PreviousTestClassDurations NONE = new PreviousTestClassDurations(Collections.<String, Long>emptyMap());
+
+    private final Map<String, Long> durations;
+    private final long averageDuration;
+
+    public PreviousTestClassDurations(Map<String, Long> durations) {
+        this.durations = durations;
+        long total = 0;
+        for (long duration : durations.values()) {
+            total += duration;
+        }
+        this.averageDuration = durations.isEmpty() ? 0 : total / durations.size();
+    }
+
+    public boolean isEmpty() {
+        return durations.isEmpty();
+    }
+
+    /**
+     * Returns whether a duration was recorded for the given test class by the previous run.
+     */
+    public boolean contains(String testClassName) {
+        return durations.containsKey(testClassName);
+    }
+
+    /**
+     * Returns the estimated duration of the given test class, in milliseconds.
+     */
+    public long estimate(String testClassName) {
+        Long duration = durations.get(testClassName);
+        return duration != null ? duration : averageDuration;
+    }
+}
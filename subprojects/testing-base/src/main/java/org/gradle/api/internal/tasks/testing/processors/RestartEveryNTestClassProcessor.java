@@ -37,6 +37,8 @@ public RestartEveryNTestClassProcessor(Factory<TestClassProcessor> factory, long
     @Override
     public void startProcessing(TestResultProcessor resultProcessor) {
         this.resultProcessor = resultProcessor;
+        // Start the first delegate right away, so that it can get ready while the first test class is on its way
+        startBatch();
     }
 
     @Override
@@ -46,8 +48,7 @@ public void processTestClass(TestClassRunInfo testClass) {
         }
 
         if (processor == null) {
-            processor = factory.create();
-            processor.startProcessing(resultProcessor);
+            startBatch();
         }
         processor.processTestClass(testClass);
         testCount++;
@@ -72,6 +73,11 @@ public void stopNow() {
         }
     }
 
+    private void startBatch() {
+        processor = factory.create();
+        processor.startProcessing(resultProcessor);
+    }
+
     private void endBatch() {
         try {
             processor.stop();
@@ -20,17 +20,21 @@
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
  * In order to speed up the development feedback cycle, this class guarantee previous failed test classes
  * to be passed to its delegate first.
+ *
+ * Previous failed test classes are passed on as soon as they are detected. The other test classes are held back until all test classes
+ * have been detected, unless there were no previous failed test classes.
  */
 public class RunPreviousFailedFirstTestClassProcessor implements TestClassProcessor {
     private final Set<String> previousFailedTestClasses;
     private final TestClassProcessor delegate;
-    private final LinkedHashSet<TestClassRunInfo> prioritizedTestClasses = new LinkedHashSet<TestClassRunInfo>();
+    private final Set<TestClassRunInfo> forwardedTestClasses = new HashSet<TestClassRunInfo>();
     private final LinkedHashSet<TestClassRunInfo> otherTestClasses = new LinkedHashSet<TestClassRunInfo>();
 
     public RunPreviousFailedFirstTestClassProcessor(Set<String> previousFailedTestClasses, TestClassProcessor delegate) {
@@ -45,8 +49,10 @@ public void startProcessing(TestResultProcessor resultProcessor) {
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
-        if (previousFailedTestClasses.contains(testClass.getTestClassName())) {
-            prioritizedTestClasses.add(testClass);
+        if (previousFailedTestClasses.isEmpty() || previousFailedTestClasses.contains(testClass.getTestClassName())) {
+            if (forwardedTestClasses.add(testClass)) {
+                delegate.processTestClass(testClass);
+            }
         } else {
             otherTestClasses.add(testClass);
         }
@@ -54,9 +60,6 @@ public void processTestClass(TestClassRunInfo testClass) {
 
     @Override
     public void stop() {
-        for (TestClassRunInfo test : prioritizedTestClasses) {
-            delegate.processTestClass(test);
-        }
         for (TestClassRunInfo test : otherTestClasses) {
             delegate.processTestClass(test);
         }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One of a number of shards which the test classes of a test run are split into, so that the shards can run on different machines.
+ *
+ * Test classes with a recorded duration are spread over the shards so that each shard gets about the same total duration, by handing the longest
+ * remaining class to the shard with the least total duration so far. Other test classes are assigned by a hash of their name. The assignment only
+ * depends on the class name and the recorded durations, so all machines using the same recorded durations agree on which shard runs which class.
+ */
+public class TestClassShard {
+    private final int index;
+    private final int count;
+    private final Set<String> knownTestClasses;
+    private final Set<String> shardTestClasses = new HashSet<String>();
+
+    /**
+     * @param index The index of this shard, starting at 0.
+     * @param count The number of shards.
+     * @param durations The recorded durations of test classes, in milliseconds.
+     */
+    public TestClassShard(int index, int count, Map<String, Long> durations) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException(String.format("Shard index %s is not valid for %s shards.", index, count));
+        }
+        this.index = index;
+        this.count = count;
+        this.knownTestClasses = new HashSet<String>(durations.keySet());
+
+        List<Map.Entry<String, Long>> longestFirst = new ArrayList<Map.Entry<String, Long>>(durations.entrySet());
+        Collections.sort(longestFirst, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> left, Map.Entry<String, Long> right) {
+                int byDuration = right.getValue().compareTo(left.getValue());
+                return byDuration != 0 ? byDuration : left.getKey().compareTo(right.getKey());
+            }
+        });
+        long[] shardDurations = new long[count];
+        for (Map.Entry<String, Long> testClass : longestFirst) {
+            int shortestShard = 0;
+            for (int shard = 1; shard < count; shard++) {
+                if (shardDurations[shard] < shardDurations[shortestShard]) {
+                    shortestShard = shard;
+                }
+            }
+            shardDurations[shortestShard] += testClass.getValue();
+            if (shortestShard == index) {
+                shardTestClasses.add(testClass.getKey());
+            }
+        }
+    }
+
+    public boolean contains(String testClassName) {
+        if (knownTestClasses.contains(testClassName)) {
+            return shardTestClasses.contains(testClassName);
+        }
+        return (testClassName.hashCode() & Integer.MAX_VALUE) % count == index;
+    }
+
+    @Override
+    public String toString() {
+        return "shard " + index + " of " + count;
+    }
+}
@@ -96,4 +96,13 @@ public TestResult addTest(String testName, String testDisplayName, long duration
         results.add(test);
         return addTest(test);
     }
+
+    /**
+     * Discards the failure details of the tests of this class, once the page of this class has been rendered.
+     */
+    public void discardFailures() {
+        for (TestResult test : getFailures()) {
+            test.discardFailures();
+        }
+    }
 }
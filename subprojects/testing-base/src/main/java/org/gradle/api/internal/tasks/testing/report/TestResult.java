@@ -18,6 +18,7 @@
 import org.gradle.api.internal.tasks.testing.junit.result.TestFailure;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.gradle.api.tasks.testing.TestResult.ResultType;
@@ -25,9 +26,10 @@
 public class TestResult extends TestResultModel implements Comparable<TestResult> {
     private final long duration;
     final ClassTestResults classResults;
-    final List<TestFailure> failures = new ArrayList<TestFailure>();
+    List<TestFailure> failures = new ArrayList<TestFailure>();
     final String name;
     final String displayName;
+    boolean failed;
     boolean ignored;
 
     public TestResult(String name, long duration, ClassTestResults classResults) {
@@ -63,7 +65,7 @@ public ResultType getResultType() {
         if (ignored) {
             return ResultType.SKIPPED;
         }
-        return failures.isEmpty() ? ResultType.SUCCESS : ResultType.FAILURE;
+        return failed ? ResultType.FAILURE : ResultType.SUCCESS;
     }
 
     @Override
@@ -90,9 +92,17 @@ public boolean isIgnored() {
 
     public void addFailure(TestFailure failure) {
         classResults.failed(this);
+        failed = true;
         failures.add(failure);
     }
 
+    /**
+     * Discards the messages and stack traces of the failures, which are only rendered on the page of the class.
+     */
+    public void discardFailures() {
+        failures = Collections.emptyList();
+    }
+
     public void setIgnored() {
         classResults.ignored(this);
         ignored = true;
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestFailure;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Combines consecutive output events of the same test and destination into a single event, so that fewer messages are sent from a test worker to the build.
+ *
+ * Combined output is forwarded before any other event, once it reaches a maximum length, and at the latest after a short delay, so that the output of a test
+ * is still reported while the test is running.
+ */
+class CoalescingTestResultProcessor implements TestResultProcessor {
+    static final int MAX_COALESCED_OUTPUT_LENGTH = 8192;
+    static final long MAX_OUTPUT_DELAY_MILLIS = 100;
+
+    private final TestResultProcessor delegate;
+    private final ScheduledExecutorService flushExecutor;
+    private final Runnable flushAction = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+    private final StringBuilder pendingOutput = new StringBuilder();
+    private Object pendingTestId;
+    private TestOutputEvent.Destination pendingDestination;
+
+    CoalescingTestResultProcessor(TestResultProcessor delegate, ScheduledExecutorService flushExecutor) {
+        this.delegate = delegate;
+        this.flushExecutor = flushExecutor;
+    }
+
+    @Override
+    public synchronized void started(TestDescriptorInternal test, TestStartEvent event) {
+        flush();
+        delegate.started(test, event);
+    }
+
+    @Override
+    public synchronized void completed(Object testId, TestCompleteEvent event) {
+        flush();
+        delegate.completed(testId, event);
+    }
+
+    @Override
+    public synchronized void failure(Object testId, TestFailure result) {
+        flush();
+        delegate.failure(testId, result);
+    }
+
+    @Override
+    public synchronized void output(Object testId, TestOutputEvent event) {
+        if (pendingTestId != null && (!pendingTestId.equals(testId) || pendingDestination != event.getDestination())) {
+            flush();
+        }
+        if (pendingTestId == null) {
+            pendingTestId = testId;
+            pendingDestination = event.getDestination();
+            flushExecutor.schedule(flushAction, MAX_OUTPUT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        pendingOutput.append(event.getMessage());
+        if (pendingOutput.length() >= MAX_COALESCED_OUTPUT_LENGTH) {
+            flush();
+        }
+    }
+
+    /**
+     * Forwards the pending output, if any.
+     */
+    synchronized void flush() {
+        if (pendingTestId == null) {
+            return;
+        }
+        delegate.output(pendingTestId, new DefaultTestOutputEvent(pendingDestination, pendingOutput.toString()));
+        pendingTestId = null;
+        pendingDestination = null;
+        pendingOutput.setLength(0);
+    }
+}
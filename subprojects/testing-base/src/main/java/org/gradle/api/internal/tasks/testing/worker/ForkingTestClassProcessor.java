@@ -23,6 +23,7 @@
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.dispatch.StreamCompletion;
 import org.gradle.internal.exceptions.DefaultMultiCauseException;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.internal.work.WorkerLeaseRegistry;
@@ -34,9 +35,17 @@
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 
 import java.util.Set;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Runs the test classes in a forked worker process.
+ *
+ * When a maximum number of in-flight test classes is given, at most that many test classes are sent to the worker process before it has finished processing them,
+ * and {@link #processTestClass(TestClassRunInfo)} blocks until the worker process has capacity for the next test class. This way test classes are only assigned
+ * to this worker process when it can actually run them soon.
+ */
 public class ForkingTestClassProcessor implements TestClassProcessor {
     private final WorkerProcessFactory workerFactory;
     private final WorkerTestClassProcessorFactory processorFactory;
@@ -44,6 +53,9 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final ForkedTestClasspath classpath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final Lock lock = new ReentrantLock();
+    private final Condition capacityAvailable = lock.newCondition();
+    private final int maxInFlightTestClasses;
+    private final boolean coalesceOutput;
     private final WorkerThreadRegistry workerThreadRegistry;
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
@@ -51,6 +63,8 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
     private final DocumentationRegistry documentationRegistry;
     private boolean stoppedNow;
+    private boolean workerFinished;
+    private int inFlightTestClasses;
     private final Set<Throwable> unrecoverableExceptions = Sets.newHashSet();
 
 
@@ -62,6 +76,24 @@ public ForkingTestClassProcessor(
         ForkedTestClasspath classpath,
         Action<WorkerProcessBuilder> buildConfigAction,
         DocumentationRegistry documentationRegistry
+    ) {
+        this(workerThreadRegistry, workerFactory, processorFactory, options, classpath, buildConfigAction, documentationRegistry, 0, false);
+    }
+
+    /**
+     * @param maxInFlightTestClasses the maximum number of test classes sent to the worker process which it has not finished processing yet, or 0 for no limit.
+     * @param coalesceOutput whether the worker process combines consecutive output events of a test into fewer, larger events.
+     */
+    public ForkingTestClassProcessor(
+        WorkerThreadRegistry workerThreadRegistry,
+        WorkerProcessFactory workerFactory,
+        WorkerTestClassProcessorFactory processorFactory,
+        JavaForkOptions options,
+        ForkedTestClasspath classpath,
+        Action<WorkerProcessBuilder> buildConfigAction,
+        DocumentationRegistry documentationRegistry,
+        int maxInFlightTestClasses,
+        boolean coalesceOutput
     ) {
         this.workerThreadRegistry = workerThreadRegistry;
         this.workerFactory = workerFactory;
@@ -70,11 +102,22 @@ public ForkingTestClassProcessor(
         this.classpath = classpath;
         this.buildConfigAction = buildConfigAction;
         this.documentationRegistry = documentationRegistry;
+        this.maxInFlightTestClasses = maxInFlightTestClasses;
+        this.coalesceOutput = coalesceOutput;
     }
 
     @Override
     public void startProcessing(TestResultProcessor resultProcessor) {
         this.resultProcessor = resultProcessor;
+        // Start the worker process right away, so that it can start up while the first test class is on its way
+        lock.lock();
+        try {
+            if (!stoppedNow) {
+                startWorkerProcess();
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
@@ -85,25 +128,37 @@ public void processTestClass(TestClassRunInfo testClass) {
                 return;
             }
 
-            if (remoteProcessor == null) {
-                completion = workerThreadRegistry.startWorker();
-                try {
-                    remoteProcessor = forkProcess();
-                } catch (RuntimeException e) {
-                    completion.leaseFinish();
-                    completion = null;
-                    throw e;
-                }
-            }
+            startWorkerProcess();
 
+            while (maxInFlightTestClasses > 0 && inFlightTestClasses >= maxInFlightTestClasses && !stoppedNow && !workerFinished) {
+                capacityAvailable.awaitUninterruptibly();
+            }
+            if (stoppedNow) {
+                return;
+            }
+            inFlightTestClasses++;
             remoteProcessor.processTestClass(testClass);
         } finally {
             lock.unlock();
         }
     }
 
+    private void startWorkerProcess() {
+        if (remoteProcessor != null) {
+            return;
+        }
+        completion = workerThreadRegistry.startWorker();
+        try {
+            remoteProcessor = forkProcess();
+        } catch (RuntimeException e) {
+            completion.leaseFinish();
+            completion = null;
+            throw e;
+        }
+    }
+
     RemoteTestClassProcessor forkProcess() {
-        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory));
+        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory, coalesceOutput, maxInFlightTestClasses > 0));
         builder.setBaseName("Gradle Test Executor");
         builder.setImplementationClasspath(classpath.getImplementationClasspath());
         builder.setImplementationModulePath(classpath.getImplementationModulepath());
@@ -132,6 +187,9 @@ public void execute(Throwable throwable) {
             }
         });
         connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        if (maxInFlightTestClasses > 0) {
+            connection.addIncoming(RemoteTestClassProcessedListener.class, new ProcessedListener());
+        }
         RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
         connection.connect();
         remoteProcessor.startProcessing();
@@ -172,6 +230,7 @@ public void stopNow() {
         lock.lock();
         try {
             stoppedNow = true;
+            capacityAvailable.signalAll();
             if (remoteProcessor != null) {
                 workerProcess.stopNow();
             }
@@ -180,6 +239,31 @@ public void stopNow() {
         }
     }
 
+    private class ProcessedListener implements RemoteTestClassProcessedListener, StreamCompletion {
+        @Override
+        public void testClassProcessed() {
+            lock.lock();
+            try {
+                inFlightTestClasses--;
+                capacityAvailable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void endStream() {
+            // The worker process will not process any further test classes, so do not wait for it to do so
+            lock.lock();
+            try {
+                workerFinished = true;
+                capacityAvailable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
     /**
      * If there are communication errors while receiving test results from the test worker,
      * we can get in a situation where a test appears skipped even though it actually failed.
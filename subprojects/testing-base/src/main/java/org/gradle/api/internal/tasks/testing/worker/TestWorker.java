@@ -55,7 +55,7 @@
  *
  * Commands are received on communication threads and then processed sequentially on the main thread.  Although concurrent calls to
  * any of the methods from {@link RemoteTestClassProcessor} are supported, the commands will still be executed sequentially in the
- * main thread in order of arrival.
+ * main thread in order of arrival. When requested, the {@link RemoteTestClassProcessedListener} of the peer is notified whenever a test class has been processed.
  */
 public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClassProcessor, Serializable, Stoppable {
     private enum State { INITIALIZING, STARTED, STOPPED }
@@ -66,9 +66,13 @@ private enum State { INITIALIZING, STARTED, STOPPED }
     private static final String WORK_THREAD_NAME = "Test worker";
 
     private final WorkerTestClassProcessorFactory factory;
+    private final boolean coalesceOutput;
+    private final boolean notifyTestClassProcessed;
     private final BlockingQueue<Runnable> runQueue = new ArrayBlockingQueue<Runnable>(1);
     private TestClassProcessor processor;
     private TestResultProcessor resultProcessor;
+    private CoalescingTestResultProcessor outputCoalescer;
+    private RemoteTestClassProcessedListener processedListener;
 
     /**
      * Note that the state object is not synchronized and not thread-safe.  Any modifications to the
@@ -78,7 +82,16 @@ private enum State { INITIALIZING, STARTED, STOPPED }
     private volatile State state = State.INITIALIZING;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
+        this(factory, false, false);
+    }
+
+    /**
+     * @param notifyTestClassProcessed whether to notify the {@link RemoteTestClassProcessedListener} of the peer whenever a test class has been processed.
+     */
+    public TestWorker(WorkerTestClassProcessorFactory factory, boolean coalesceOutput, boolean notifyTestClassProcessed) {
         this.factory = factory;
+        this.coalesceOutput = coalesceOutput;
+        this.notifyTestClassProcessed = notifyTestClassProcessed;
     }
 
     @Override
@@ -146,6 +159,13 @@ private void startReceivingTests(WorkerProcessContext workerProcessContext, Serv
         ObjectConnection serverConnection = workerProcessContext.getServerConnection();
         serverConnection.useParameterSerializers(TestEventSerializer.create());
         this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        if (coalesceOutput) {
+            outputCoalescer = new CoalescingTestResultProcessor(resultProcessor, testServices.get(ExecutorFactory.class).createScheduled("Test output flusher", 1));
+            this.resultProcessor = outputCoalescer;
+        }
+        if (notifyTestClassProcessed) {
+            this.processedListener = serverConnection.addOutgoing(RemoteTestClassProcessedListener.class);
+        }
         serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
         serverConnection.connect();
     }
@@ -179,6 +199,9 @@ public void run() {
                 } finally {
                     // Clean the interrupted status
                     Thread.interrupted();
+                    if (processedListener != null) {
+                        processedListener.testClassProcessed();
+                    }
                 }
             }
         });
@@ -191,6 +214,9 @@ public void stop() {
             public void run() {
                 try {
                     processor.stop();
+                    if (outputCoalescer != null) {
+                        outputCoalescer.flush();
+                    }
                 } finally {
                     state = State.STOPPED;
                     // Clean the interrupted status
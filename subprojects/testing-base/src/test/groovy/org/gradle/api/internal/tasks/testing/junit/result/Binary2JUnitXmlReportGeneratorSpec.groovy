@@ -42,12 +42,12 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
     Binary2JUnitXmlReportGenerator generator
     final WorkerLeaseService workerLeaseService = new TestWorkerLeaseService()
 
-    def generatorWithMaxThreads(int numThreads) {
+    def generatorWithMaxThreads(int numThreads, JUnitXmlResultOptions options = new JUnitXmlResultOptions(false, false)) {
         def parallelismConfiguration = new DefaultParallelismConfiguration(false, numThreads)
         buildOperationExecutor = new DefaultBuildOperationExecutor(
             Mock(BuildOperationListener), Mock(Clock), new NoOpProgressLoggerFactory(),
             new DefaultBuildOperationQueueFactory(workerLeaseService), new DefaultExecutorFactory(), parallelismConfiguration, new DefaultBuildOperationIdFactory())
-        Binary2JUnitXmlReportGenerator reportGenerator = new Binary2JUnitXmlReportGenerator(temp.testDirectory, resultsProvider, new JUnitXmlResultOptions(false, false), buildOperationExecutor, "localhost")
+        Binary2JUnitXmlReportGenerator reportGenerator = new Binary2JUnitXmlReportGenerator(temp.testDirectory, resultsProvider, options, buildOperationExecutor, "localhost")
         reportGenerator.xmlWriter = Mock(JUnitXmlResultWriter)
         return reportGenerator
     }
@@ -79,6 +79,22 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
         numThreads << [1, 4]
     }
 
+    def "writes results of all test classes to a single file when aggregated"() {
+        generator = generatorWithMaxThreads(4, new JUnitXmlResultOptions(false, false, true))
+        temp.testDirectory.file("TEST-FooTest.xml").text = "old"
+
+        when:
+        generator.generate()
+
+        then:
+        1 * generator.xmlWriter.writeAll(_)
+        0 * generator.xmlWriter._
+        0 * resultsProvider.visitClasses(_)
+
+        and:
+        temp.testDirectory.list() as Set == [Binary2JUnitXmlReportGenerator.AGGREGATED_REPORT_FILE_NAME] as Set
+    }
+
     def "adds context information to the failure if something goes wrong"() {
         generator = generatorWithMaxThreads(1)
 
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.junit.result
 
+import org.gradle.api.Action
 import org.gradle.api.internal.tasks.testing.BuildableTestResultsProvider
 import org.gradle.api.internal.tasks.testing.results.DefaultTestResult
 import org.gradle.integtests.fixtures.JUnitTestClassExecutionResult
@@ -139,6 +140,36 @@ class JUnitXmlResultWriterSpec extends Specification {
 """
     }
 
+    def "writes results of all test classes into a single document"() {
+        def fooTest = new TestClassResult(1, "com.foo.FooTest", startTime)
+        def barTest = new TestClassResult(2, "com.foo.BarTest", startTime)
+        provider.visitClasses(_) >> { Action action ->
+            action.execute(fooTest)
+            action.execute(barTest)
+        }
+
+        when:
+        def text = new ByteArrayOutputStream()
+        generator.writeAll(text)
+        def xml = text.toString("UTF-8").replace(SystemProperties.instance.lineSeparator, "\n")
+
+        then:
+        xml == """<?xml version="1.0" encoding="UTF-8"?>
+<testsuites>
+  <testsuite name="com.foo.FooTest" tests="0" skipped="0" failures="0" errors="0" timestamp="2012-11-19T17:09:28" hostname="localhost" time="0.0">
+    <properties/>
+    <system-out><![CDATA[]]></system-out>
+    <system-err><![CDATA[]]></system-err>
+  </testsuite>
+  <testsuite name="com.foo.BarTest" tests="0" skipped="0" failures="0" errors="0" timestamp="2012-11-19T17:09:28" hostname="localhost" time="0.0">
+    <properties/>
+    <system-out><![CDATA[]]></system-out>
+    <system-err><![CDATA[]]></system-err>
+  </testsuite>
+</testsuites>
+"""
+    }
+
     def "can generate with output per test"() {
         given:
         options = new JUnitXmlResultOptions(true, false)
@@ -98,6 +98,35 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "reads output of interleaved test classes from multiple threads"() {
+        when:
+        def writer = output.writer()
+        100.times { i ->
+            (1..4).each { classId ->
+                writer.onOutput(classId, i % 3, output(i % 2 == 0 ? StdOut : StdErr, "[\u00e9-$classId-$i]"))
+            }
+        }
+        writer.close()
+        def reader = output.reader()
+        def outputs = new String[4]
+        def threads = (1..4).collect { classId ->
+            Thread.start {
+                outputs[classId - 1] = collectAllOutput(reader, classId, StdOut)
+            }
+        }
+        threads*.join()
+
+        then:
+        (1..4).each { classId ->
+            assert outputs[classId - 1] == (0..<100).findAll { it % 2 == 0 }.collect { "[\u00e9-$classId-$it]" }.join("")
+        }
+        collectOutput(reader, 3, StdErr) == (0..<100).findAll { it % 2 == 1 && it % 3 == 0 }.collect { "[\u00e9-3-$it]" }.join("")
+        collectOutput(reader, 3, 2, StdErr) == (0..<100).findAll { it % 2 == 1 && it % 3 == 2 }.collect { "[\u00e9-3-$it]" }.join("")
+
+        cleanup:
+        reader.close()
+    }
+
     def DefaultTestOutputEvent output(TestOutputEvent.Destination destination, String msg) {
         new DefaultTestOutputEvent(destination, msg)
     }
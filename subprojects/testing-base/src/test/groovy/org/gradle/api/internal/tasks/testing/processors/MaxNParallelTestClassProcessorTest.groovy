@@ -168,6 +168,118 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         1 * asyncProcessor2.processTestClass(test)
     }
 
+    def assignsTestClassesToProcessorWithLeastEstimatedWork() {
+        def durations = new PreviousTestClassDurations([Slow: 100L, Medium: 60L, Fast1: 30L, Fast2: 20L, Fast3: 10L])
+        def processor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, durations, false, false)
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        processor.startProcessing(resultProcessor)
+
+        when:
+        ['Slow', 'Medium', 'Fast1', 'Fast2', 'Fast3'].each { processor.processTestClass(testClass(it)) }
+
+        then:
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor1.processTestClass({ it.testClassName == 'Slow' })
+        1 * asyncProcessor2.processTestClass({ it.testClassName == 'Medium' })
+        1 * asyncProcessor2.processTestClass({ it.testClassName == 'Fast1' })
+        1 * asyncProcessor2.processTestClass({ it.testClassName == 'Fast2' })
+        1 * asyncProcessor1.processTestClass({ it.testClassName == 'Fast3' })
+    }
+
+    def processorsPullTestClassesFromSharedQueue() {
+        def processor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, PreviousTestClassDurations.NONE, true, false)
+        def test1 = testClass('Test1')
+        def test2 = testClass('Test2')
+        def test3 = testClass('Test3')
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor pulling1
+        TestClassProcessor pulling2
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        processor.startProcessing(resultProcessor)
+
+        when:
+        [test1, test2, test3].each { processor.processTestClass(it) }
+
+        then:
+        2 * factory.create() >>> [processor1, processor2]
+        1 * actorFactory.createActor(_) >> { args -> pulling1 = args[0]; actor1 }
+        1 * actorFactory.createActor(_) >> { args -> pulling2 = args[0]; actor2 }
+        1 * actor1.getProxy(TestClassProcessor) >> Mock(TestClassProcessor)
+        1 * actor2.getProxy(TestClassProcessor) >> Mock(TestClassProcessor)
+
+        when:
+        pulling2.processTestClass(test1)
+
+        then:
+        1 * processor2.processTestClass(test1)
+        1 * processor2.processTestClass(test2)
+        1 * processor2.processTestClass(test3)
+
+        when:
+        pulling1.processTestClass(test2)
+
+        then:
+        0 * processor1.processTestClass(_)
+    }
+
+    def startsFirstProcessorEagerlyAndAssignsItTheFirstTestClass() {
+        def processor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, PreviousTestClassDurations.NONE, false, true)
+        def test1 = testClass('Test1')
+        def test2 = testClass('Test2')
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+
+        when:
+        processor.startProcessing(resultProcessor)
+
+        then:
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
+        0 * _
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+
+        then:
+        1 * asyncProcessor1.processTestClass(test1)
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
+        1 * asyncProcessor2.processTestClass(test2)
+    }
+
+    TestClassRunInfo testClass(String name) {
+        return Stub(TestClassRunInfo) {
+            getTestClassName() >> name
+        }
+    }
+
     def "stopNow propagates to factory created processors"() {
         TestClassRunInfo test = Mock()
         TestClassProcessor processor1 = Mock()
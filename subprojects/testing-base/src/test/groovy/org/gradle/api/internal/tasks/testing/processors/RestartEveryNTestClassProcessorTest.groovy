@@ -31,15 +31,19 @@ class RestartEveryNTestClassProcessorTest extends Specification {
     private final TestResultProcessor resultProcessor = Mock();
     private RestartEveryNTestClassProcessor processor = new RestartEveryNTestClassProcessor(factory, 2);
 
-    def 'creates delegate processor on first test'() {
+    def 'creates delegate processor when processing starts'() {
         when:
         processor.startProcessing(resultProcessor)
-        processor.processTestClass(test1)
 
         then:
         1 * factory.create() >> delegate
         then:
         1 * delegate.startProcessing(resultProcessor)
+        0 * _._
+
+        when:
+        processor.processTestClass(test1)
+
         then:
         1 * delegate.processTestClass(test1)
         0 * _._
@@ -46,4 +46,51 @@ class RunPreviousFailedFirstTestClassProcessorTest extends Specification {
         then:
         1 * delegate.stop()
     }
+
+    def 'previous failed test classes are passed to delegate as soon as they are detected'() {
+        given:
+        processor = new RunPreviousFailedFirstTestClassProcessor(['Class2'] as Set, delegate)
+
+        when:
+        ['Class1', 'Class2'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+        0 * delegate.processTestClass(_)
+
+        when:
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        then:
+        1 * delegate.stop()
+    }
+
+    def 'test classes are passed to delegate immediately when there are no previous failed test classes'() {
+        given:
+        processor = new RunPreviousFailedFirstTestClassProcessor([] as Set, delegate)
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class1'))
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+    }
+
+    def 'test classes are passed to delegate only once'() {
+        given:
+        processor = new RunPreviousFailedFirstTestClassProcessor(previousFailed as Set, delegate)
+
+        when:
+        ['Class1', 'Class2', 'Class1', 'Class2'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+
+        where:
+        previousFailed << [[], ['Class1'], ['Class3']]
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import spock.lang.Specification
+
+class ShardingTestClassProcessorTest extends Specification {
+    def delegate = Mock(TestClassProcessor)
+    def processor = new ShardingTestClassProcessor(new TestClassShard(1, 2, [A: 20L, B: 10L]), delegate)
+
+    def "only passes test classes of the shard to the delegate"() {
+        given:
+        def resultProcessor = Stub(TestResultProcessor)
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(testClass('A'))
+        processor.processTestClass(testClass('B'))
+        processor.stop()
+
+        then:
+        1 * delegate.startProcessing(resultProcessor)
+        then:
+        1 * delegate.processTestClass({ it.testClassName == 'B' })
+        then:
+        1 * delegate.stop()
+        0 * _
+    }
+
+    TestClassRunInfo testClass(String name) {
+        return Stub(TestClassRunInfo) {
+            getTestClassName() >> name
+        }
+    }
+}
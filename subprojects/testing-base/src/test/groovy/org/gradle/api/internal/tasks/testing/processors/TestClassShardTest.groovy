@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import spock.lang.Specification
+
+class TestClassShardTest extends Specification {
+
+    def "assigns each test class to exactly one shard"() {
+        given:
+        def durations = [A: 100L, B: 50L, C: 10L]
+        def shards = (0..<3).collect { new TestClassShard(it, 3, durations) }
+        def testClasses = ['A', 'B', 'C'] + (1..100).collect { "org.gradle.Test$it".toString() }
+
+        expect:
+        testClasses.every { testClass -> shards.count { it.contains(testClass) } == 1 }
+    }
+
+    def "spreads test classes with recorded durations over the shards by duration"() {
+        given:
+        def durations = [Slow: 100L, Medium: 60L, Fast1: 30L, Fast2: 20L, Fast3: 10L]
+        def shard0 = new TestClassShard(0, 2, durations)
+        def shard1 = new TestClassShard(1, 2, durations)
+
+        expect:
+        durations.keySet().findAll { shard0.contains(it) } == ['Slow', 'Fast3'] as Set
+        durations.keySet().findAll { shard1.contains(it) } == ['Medium', 'Fast1', 'Fast2'] as Set
+    }
+
+    def "assignment does not depend on the order of the recorded durations"() {
+        given:
+        def durations = [A: 10L, B: 10L, C: 10L, D: 10L]
+        def reversed = new LinkedHashMap<String, Long>()
+        durations.keySet().toList().reverse().each { reversed.put(it, durations[it]) }
+
+        expect:
+        (0..<3).every { index ->
+            def shard = new TestClassShard(index, 3, durations)
+            def other = new TestClassShard(index, 3, reversed)
+            durations.keySet().every { shard.contains(it) == other.contains(it) }
+        }
+    }
+
+    def "single shard contains all test classes"() {
+        given:
+        def shard = new TestClassShard(0, 1, [A: 1L])
+
+        expect:
+        shard.contains('A')
+        shard.contains('B')
+    }
+
+    def "rejects invalid shard index #index of #count"() {
+        when:
+        new TestClassShard(index, count, [:])
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        index | count
+        -1    | 2
+        2     | 2
+        0     | 0
+    }
+}
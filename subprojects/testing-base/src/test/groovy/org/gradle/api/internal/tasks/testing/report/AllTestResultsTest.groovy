@@ -15,8 +15,11 @@
  */
 package org.gradle.api.internal.tasks.testing.report
 
+import org.gradle.api.internal.tasks.testing.junit.result.TestFailure
 import spock.lang.Specification
 
+import static org.gradle.api.tasks.testing.TestResult.ResultType.FAILURE
+
 class AllTestResultsTest extends Specification {
     final AllTestResults results = new AllTestResults()
 
@@ -41,4 +44,19 @@ class AllTestResultsTest extends Specification {
         test.classResults.packageResults.name == 'default-package'
         results.packages.contains(test.classResults.packageResults)
     }
+
+    def keepsFailureCountsWhenFailureDetailsAreDiscarded() {
+        given:
+        def test = results.addTest(1, 'org.gradle.Test', 'test', 90)
+        test.addFailure(new TestFailure('message', 'stack-trace', 'ExceptionType'))
+
+        when:
+        test.classResults.discardFailures()
+
+        then:
+        test.failures.empty
+        test.resultType == FAILURE
+        test.classResults.failureCount == 1
+        results.failureCount == 1
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import spock.lang.Specification
+
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
+
+class CoalescingTestResultProcessorTest extends Specification {
+    def delegate = Mock(TestResultProcessor)
+    def flushExecutor = Mock(ScheduledExecutorService)
+    def processor = new CoalescingTestResultProcessor(delegate, flushExecutor)
+
+    def "combines consecutive output of the same test and destination"() {
+        when:
+        processor.output(1, new DefaultTestOutputEvent(StdOut, "line 1\n"))
+        processor.output(1, new DefaultTestOutputEvent(StdOut, "line 2\n"))
+        processor.output(1, new DefaultTestOutputEvent(StdErr, "error\n"))
+        processor.output(2, new DefaultTestOutputEvent(StdErr, "other\n"))
+        processor.flush()
+
+        then:
+        1 * delegate.output(1, new DefaultTestOutputEvent(StdOut, "line 1\nline 2\n"))
+
+        then:
+        1 * delegate.output(1, new DefaultTestOutputEvent(StdErr, "error\n"))
+
+        then:
+        1 * delegate.output(2, new DefaultTestOutputEvent(StdErr, "other\n"))
+        0 * delegate._
+    }
+
+    def "forwards pending output before other events"() {
+        def test = Stub(TestDescriptorInternal)
+        def startEvent = new TestStartEvent(0)
+        def completeEvent = new TestCompleteEvent(0)
+
+        when:
+        processor.output(1, new DefaultTestOutputEvent(StdOut, "before start"))
+        processor.started(test, startEvent)
+        processor.output(1, new DefaultTestOutputEvent(StdOut, "before complete"))
+        processor.completed(1, completeEvent)
+
+        then:
+        1 * delegate.output(1, new DefaultTestOutputEvent(StdOut, "before start"))
+
+        then:
+        1 * delegate.started(test, startEvent)
+
+        then:
+        1 * delegate.output(1, new DefaultTestOutputEvent(StdOut, "before complete"))
+
+        then:
+        1 * delegate.completed(1, completeEvent)
+        0 * delegate._
+    }
+
+    def "forwards output once it reaches the maximum length"() {
+        def message = "x" * (CoalescingTestResultProcessor.MAX_COALESCED_OUTPUT_LENGTH / 2)
+
+        when:
+        processor.output(1, new DefaultTestOutputEvent(StdOut, message))
+
+        then:
+        0 * delegate._
+
+        when:
+        processor.output(1, new DefaultTestOutputEvent(StdOut, message))
+
+        then:
+        1 * delegate.output(1, new DefaultTestOutputEvent(StdOut, message * 2))
+    }
+
+    def "forwards pending output after a delay"() {
+        Runnable flushAction = null
+
+        when:
+        processor.output(1, new DefaultTestOutputEvent(StdOut, "line 1\n"))
+        processor.output(1, new DefaultTestOutputEvent(StdOut, "line 2\n"))
+
+        then:
+        1 * flushExecutor.schedule(_, CoalescingTestResultProcessor.MAX_OUTPUT_DELAY_MILLIS, TimeUnit.MILLISECONDS) >> { args -> flushAction = args[0]; null }
+        0 * delegate._
+
+        when:
+        flushAction.run()
+
+        then:
+        1 * delegate.output(1, new DefaultTestOutputEvent(StdOut, "line 1\nline 2\n"))
+    }
+}
@@ -20,6 +20,7 @@ import com.google.common.collect.ImmutableList
 import org.gradle.api.Action
 import org.gradle.api.internal.DocumentationRegistry
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
 import org.gradle.internal.exceptions.DefaultMultiCauseException
 import org.gradle.internal.remote.ObjectConnection
@@ -31,6 +32,7 @@ import org.gradle.process.internal.worker.WorkerProcess
 import org.gradle.process.internal.worker.WorkerProcessBuilder
 import org.gradle.process.internal.worker.WorkerProcessFactory
 import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
 
 class ForkingTestClassProcessorTest extends Specification {
     WorkerThreadRegistry workerLeaseRegistry = Mock(WorkerThreadRegistry)
@@ -65,6 +67,29 @@ class ForkingTestClassProcessorTest extends Specification {
         1 * remoteProcessor.processTestClass(test2)
         1 * remoteProcessor.startProcessing()
         0 * remoteProcessor._
+        0 * connection.addIncoming(RemoteTestClassProcessedListener, _)
+    }
+
+    def "acquires worker lease and starts worker process when processing starts"() {
+        given:
+        def test1 = Mock(TestClassRunInfo)
+        def processor = newProcessor()
+
+        when:
+        processor.startProcessing(Mock(TestResultProcessor))
+
+        then:
+        1 * workerLeaseRegistry.startWorker()
+        1 * remoteProcessor.startProcessing()
+        0 * remoteProcessor._
+
+        when:
+        processor.processTestClass(test1)
+
+        then:
+        0 * workerLeaseRegistry.startWorker()
+        1 * remoteProcessor.processTestClass(test1)
+        0 * remoteProcessor._
     }
 
     def "starts process with the specified classpath"() {
@@ -174,12 +199,69 @@ class ForkingTestClassProcessorTest extends Specification {
         noExceptionThrown()
     }
 
-    def newProcessor(
-        ForkedTestClasspath classpath = new ForkedTestClasspath(ImmutableList.of(), ImmutableList.of(), ImmutableList.of(), ImmutableList.of())
-    ) {
+    def "waits for worker to process test classes when maximum number of test classes are in flight"() {
+        given:
+        RemoteTestClassProcessedListener processedListener = null
+        def test1 = Mock(TestClassRunInfo)
+        def test2 = Mock(TestClassRunInfo)
+        def test3 = Mock(TestClassRunInfo)
+        def processor = newProcessor(emptyClasspath(), 2)
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+
+        then:
+        1 * connection.addIncoming(RemoteTestClassProcessedListener, _) >> { args -> processedListener = args[1] }
+        1 * remoteProcessor.processTestClass(test1)
+        1 * remoteProcessor.processTestClass(test2)
+
+        when:
+        def thread = Thread.start {
+            processor.processTestClass(test3)
+        }
+        // The thread parks once it waits for the worker to process a test class
+        new PollingConditions().eventually {
+            assert thread.state == Thread.State.WAITING
+        }
+
+        then:
+        0 * remoteProcessor.processTestClass(test3)
+
+        when:
+        processedListener.testClassProcessed()
+        thread.join()
+
+        then:
+        1 * remoteProcessor.processTestClass(test3)
+    }
+
+    def "does not wait for worker which finished to process test classes"() {
+        given:
+        RemoteTestClassProcessedListener processedListener = null
+        def test1 = Mock(TestClassRunInfo)
+        def test2 = Mock(TestClassRunInfo)
+        def processor = newProcessor(emptyClasspath(), 1)
+
+        when:
+        processor.processTestClass(test1)
+        processedListener.endStream()
+        processor.processTestClass(test2)
+
+        then:
+        1 * connection.addIncoming(RemoteTestClassProcessedListener, _) >> { args -> processedListener = args[1] }
+        1 * remoteProcessor.processTestClass(test1)
+        1 * remoteProcessor.processTestClass(test2)
+    }
+
+    def newProcessor(ForkedTestClasspath classpath = emptyClasspath(), int maxInFlightTestClasses = 0) {
         return new ForkingTestClassProcessor(
             workerLeaseRegistry, workerProcessFactory, Mock(WorkerTestClassProcessorFactory),
-            Stub(JavaForkOptions), classpath, Mock(Action), Mock(DocumentationRegistry)
+            Stub(JavaForkOptions), classpath, Mock(Action), Mock(DocumentationRegistry), maxInFlightTestClasses, false
         )
     }
+
+    static ForkedTestClasspath emptyClasspath() {
+        return new ForkedTestClasspath(ImmutableList.of(), ImmutableList.of(), ImmutableList.of(), ImmutableList.of())
+    }
 }
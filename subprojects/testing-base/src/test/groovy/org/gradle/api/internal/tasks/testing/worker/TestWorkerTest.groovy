@@ -76,4 +76,28 @@ public class TestWorkerTest extends ConcurrentSpec {
         1 * processor.processTestClass(test)
         1 * processor.stop()
     }
+
+    def notifiesPeerWhenTestClassProcessedWhenRequested() {
+        def processedListener = Mock(RemoteTestClassProcessedListener)
+        def worker = new TestWorker(factory, false, true)
+
+        when:
+        async {
+            worker.execute(workerContext)
+        }
+
+        then:
+        1 * factory.create(_) >> processor
+        1 * connection.addOutgoing(TestResultProcessor) >> resultProcessor
+        1 * connection.addOutgoing(RemoteTestClassProcessedListener) >> processedListener
+        1 * connection.connect() >> {
+            start {
+                worker.startProcessing()
+                worker.processTestClass(test)
+                worker.stop()
+            }
+        }
+        1 * processor.processTestClass(test)
+        1 * processedListener.testClassProcessed()
+    }
 }
@@ -17,9 +17,11 @@ dependencies {
     implementation(project(":file-temp"))
     implementation(project(":model-core"))
     implementation(project(":core"))
+    implementation(project(":build-option"))
     implementation(project(":reporting"))
     implementation(project(":platform-base"))
     implementation(project(":platform-jvm"))
+    implementation(project(":snapshots"))
     implementation(project(":testing-base"))
     implementation(project(":testing-jvm-infrastructure"))
 
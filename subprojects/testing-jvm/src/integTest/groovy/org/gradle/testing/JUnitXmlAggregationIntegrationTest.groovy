@@ -0,0 +1,58 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.testing
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class JUnitXmlAggregationIntegrationTest extends AbstractIntegrationSpec {
+    def setup() {
+        buildFile << """
+            apply plugin: 'java'
+            ${mavenCentralRepository()}
+            dependencies { testImplementation '$testJunitCoordinates' }
+        """
+        ["First", "Second"].each { name ->
+            file("src/test/java/${name}Test.java") << """
+                public class ${name}Test {
+                    @org.junit.Test public void ok() {}
+                }
+            """
+        }
+    }
+
+    def "reruns tests when aggregation of the JUnit XML results changes"() {
+        given:
+        succeeds "test"
+        file("build/test-results/test").assertContainsDescendants("TEST-FirstTest.xml", "TEST-SecondTest.xml")
+
+        when:
+        succeeds "test", "-Dorg.gradle.internal.testing.junit-xml.aggregate=true"
+
+        then:
+        executedAndNotSkipped(":test")
+        file("build/test-results/test/TEST-all.xml").assertIsFile()
+        file("build/test-results/test/TEST-FirstTest.xml").assertDoesNotExist()
+
+        when:
+        succeeds "test"
+
+        then:
+        executedAndNotSkipped(":test")
+        file("build/test-results/test").assertContainsDescendants("TEST-FirstTest.xml", "TEST-SecondTest.xml")
+        file("build/test-results/test/TEST-all.xml").assertDoesNotExist()
+    }
+}
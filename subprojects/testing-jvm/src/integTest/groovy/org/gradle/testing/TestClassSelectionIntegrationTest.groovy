@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.testing
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.DefaultTestExecutionResult
+
+import static org.hamcrest.CoreMatchers.containsString
+
+class TestClassSelectionIntegrationTest extends AbstractIntegrationSpec {
+    def setup() {
+        file("gradle.properties") << "systemProp.org.gradle.internal.testing.select-affected-test-classes=true"
+        buildFile << """
+            apply plugin: 'java'
+            ${mavenCentralRepository()}
+            dependencies { testImplementation '$testJunitCoordinates' }
+        """
+        file("src/main/java/First.java") << "public class First { public String value() { return \"first\"; } }"
+        file("src/main/java/Second.java") << "public class Second { public String value() { return \"second\"; } }"
+        ["First", "Second"].each { name ->
+            file("src/test/java/${name}Test.java") << """
+                import org.junit.*;
+                import java.io.*;
+
+                public class ${name}Test {
+                    @Test public void ok() throws IOException {
+                        try (Writer writer = new FileWriter("executions.txt", true)) {
+                            writer.write("${name}Test\\n");
+                        }
+                        System.out.println("output of ${name}Test");
+                        Assert.assertNotNull(new ${name}().value());
+                    }
+                }
+            """
+        }
+    }
+
+    def "carries forward the results of test classes not affected by changes"() {
+        given:
+        succeeds "test"
+        assert file("executions.txt").text.readLines().toSorted() == ["FirstTest", "SecondTest"]
+        file("executions.txt").delete()
+
+        when:
+        file("src/main/java/Second.java").text = "public class Second { public String value() { return \"changed\"; } }"
+        succeeds "test"
+
+        then:
+        file("executions.txt").text.readLines() == ["SecondTest"]
+        def result = new DefaultTestExecutionResult(testDirectory)
+        result.assertTestClassesExecuted("FirstTest", "SecondTest")
+        result.testClass("FirstTest").assertTestPassed("ok").assertStdout(containsString("output of FirstTest"))
+        result.testClass("SecondTest").assertTestPassed("ok")
+        file("build/test-results/test/binary").assertIsDir()
+        file("build/tmp/test/previous-results").assertDoesNotExist()
+
+        when:
+        file("executions.txt").delete()
+        file("src/main/java/First.java").text = "public class First { public String value() { return \"changed\"; } }"
+        succeeds "test"
+
+        then:
+        file("executions.txt").text.readLines() == ["FirstTest"]
+        new DefaultTestExecutionResult(testDirectory).assertTestClassesExecuted("FirstTest", "SecondTest")
+    }
+
+    def "runs all test classes when test inputs change"() {
+        given:
+        buildFile << "test { systemProperty 'some.property', providers.gradleProperty('value').getOrElse('default') }"
+        succeeds "test"
+        file("executions.txt").delete()
+
+        when:
+        succeeds "test", "-Pvalue=changed"
+
+        then:
+        file("executions.txt").text.readLines().toSorted() == ["FirstTest", "SecondTest"]
+        new DefaultTestExecutionResult(testDirectory).assertTestClassesExecuted("FirstTest", "SecondTest")
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.testing
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.util.internal.GUtil
+
+class TestShardingIntegrationTest extends AbstractIntegrationSpec {
+    def testClasses = ["FirstTest", "SecondTest", "ThirdTest", "FourthTest"]
+
+    def setup() {
+        buildFile << """
+            apply plugin: 'java'
+            ${mavenCentralRepository()}
+            dependencies { testImplementation '$testJunitCoordinates' }
+            test {
+                shardIndex = providers.gradleProperty('shardIndex').map { it as Integer }
+                shardCount = providers.gradleProperty('shardCount').map { it as Integer }
+                shardDurationsFile = layout.projectDirectory.file(providers.gradleProperty('shardDurations'))
+            }
+        """
+        testClasses.each { name ->
+            file("src/test/java/${name}.java") << """
+                import org.junit.*;
+                import java.io.*;
+
+                public class ${name} {
+                    @Test public void ok() throws IOException {
+                        try (Writer writer = new FileWriter("executions.txt", true)) {
+                            writer.write("${name}\\n");
+                        }
+                    }
+                }
+            """
+        }
+    }
+
+    def "each test class runs in exactly one shard"() {
+        when:
+        succeeds "test", "-PshardIndex=0", "-PshardCount=2"
+        def firstShard = file("executions.txt").text.readLines()
+        file("executions.txt").delete()
+        succeeds "test", "-PshardIndex=1", "-PshardCount=2"
+        def secondShard = file("executions.txt").text.readLines()
+
+        then:
+        !firstShard.empty
+        !secondShard.empty
+        (firstShard + secondShard).toSorted() == testClasses.toSorted()
+    }
+
+    def "writes the durations of the test classes run by a shard"() {
+        when:
+        succeeds "test", "-PshardIndex=0", "-PshardCount=1"
+
+        then:
+        def durations = GUtil.loadProperties(file("build/test-results/test/binary/test-class-durations.properties"))
+        durations.stringPropertyNames() == testClasses as Set
+        durations.values().every { (it as Long) >= 0 }
+    }
+
+    def "splits the test classes by the recorded durations"() {
+        given:
+        file("durations.properties") << "FirstTest=4000\nSecondTest=3000\nThirdTest=2000\nFourthTest=1000\n"
+
+        when:
+        succeeds "test", "-PshardIndex=0", "-PshardCount=2", "-PshardDurations=durations.properties"
+
+        then:
+        file("executions.txt").text.readLines().toSorted() == ["FirstTest", "FourthTest"]
+    }
+
+    def "runs the shard again when the shard changes"() {
+        given:
+        succeeds "test", "-PshardIndex=0", "-PshardCount=2"
+
+        when:
+        succeeds "test", "-PshardIndex=1", "-PshardCount=2"
+
+        then:
+        executedAndNotSkipped(":test")
+    }
+
+    def "fails when the shard index is missing"() {
+        when:
+        fails "test", "-PshardCount=2"
+
+        then:
+        failure.assertHasCause("Cannot split the test classes into shards, as no shard index is set.")
+    }
+
+    def "fails when the shard index is out of range"() {
+        when:
+        fails "test", "-PshardIndex=2", "-PshardCount=2"
+
+        then:
+        failure.assertHasCause("Cannot split the test classes into shards, as 2 is not a valid shard index for 2 shards.")
+    }
+}
@@ -130,4 +130,13 @@ default List<TestFrameworkDistributionModule> getWorkerImplementationModulepathM
     @Internal
     boolean getUseDistributionDependencies();
 
+    /**
+     * Whether the test worker runs each test class as soon as it receives it, rather than collecting the test classes and running them all
+     * when it is stopped. Test classes are only handed out to workers when they have capacity to run them if this is the case.
+     */
+    @Internal
+    default boolean getRunsTestClassesOnArrival() {
+        return false;
+    }
+
 }
@@ -29,24 +29,31 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
+/**
+ * Detects test classes by inspecting their class files and those of their super classes.
+ *
+ * <p>Test class files can be processed concurrently. Whether a super class is a test class is only determined once and kept in memory,
+ * and super classes from library jars are read straight out of the jar.</p>
+ */
 public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractTestFrameworkDetector.class);
     private static final String JAVA_LANG_OBJECT = "java/lang/Object";
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final Map<String, Boolean> superClasses;
     private TestClassProcessor testClassProcessor;
 
     private List<File> testClassesDirectories;
@@ -55,19 +62,20 @@
     protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.superClasses = new ConcurrentHashMap<String, Boolean>();
     }
 
     protected abstract T createClassVisitor();
 
-    private File getSuperTestClassFile(String superClassName) {
-        prepareClasspath();
+    @Nullable
+    private TestClass readSuperTestClass(String superClassName) {
+        List<File> classDirectories = prepareClasspath();
         if (StringUtils.isEmpty(superClassName)) {
             throw new IllegalArgumentException("superClassName is empty!");
         }
 
         File superTestClassFile = null;
-        for (File testClassDirectory : testClassDirectories) {
+        for (File testClassDirectory : classDirectories) {
             File candidate = new File(testClassDirectory, superClassName + ".class");
             if (candidate.exists()) {
                 superTestClassFile = candidate;
@@ -75,19 +83,20 @@ private File getSuperTestClassFile(String superClassName) {
         }
 
         if (superTestClassFile != null) {
-            return superTestClassFile;
+            return readClassFile(superTestClassFile, Factories.constant(superClassName));
         } else if (JAVA_LANG_OBJECT.equals(superClassName)) {
             // java.lang.Object found, which is not a test class
             return null;
         } else {
             // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
+            byte[] superTestClassBytes = classFileExtractionManager.getLibraryClassBytes(superClassName);
+            return superTestClassBytes == null ? null : readClass(superTestClassBytes, superClassName, Factories.constant(superClassName));
         }
     }
 
-    private void prepareClasspath() {
+    private synchronized List<File> prepareClasspath() {
         if (testClassDirectories != null) {
-            return;
+            return testClassDirectories;
         }
 
         testClassDirectories = new ArrayList<File>();
@@ -104,6 +113,7 @@ private void prepareClasspath() {
                 }
             }
         }
+        return testClassDirectories;
     }
 
     @Override
@@ -117,14 +127,10 @@ public void setTestClasspath(List<File> testClasspath) {
     }
 
     private TestClass readClassFile(File testClassFile, Factory<String> fallbackClassNameProvider) {
-        final TestClassVisitor classVisitor = createClassVisitor();
-
         InputStream classStream = null;
         try {
             classStream = new BufferedInputStream(new FileInputStream(testClassFile));
-            final ClassReader classReader = new ClassReader(IOUtils.toByteArray(classStream));
-            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
-            return TestClass.forParseableFile(classVisitor);
+            return readClass(IOUtils.toByteArray(classStream), testClassFile.getAbsolutePath(), fallbackClassNameProvider);
         } catch (Throwable e) {
             LOGGER.debug("Failed to read class file " + testClassFile.getAbsolutePath() + "; assuming it's a test class and continuing", e);
             return TestClass.forUnparseableFile(fallbackClassNameProvider.create());
@@ -133,14 +139,27 @@ private TestClass readClassFile(File testClassFile, Factory<String> fallbackClas
         }
     }
 
+    private TestClass readClass(byte[] classBytes, String displayName, Factory<String> fallbackClassNameProvider) {
+        final TestClassVisitor classVisitor = createClassVisitor();
+
+        try {
+            final ClassReader classReader = new ClassReader(classBytes);
+            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+            return TestClass.forParseableFile(classVisitor);
+        } catch (Throwable e) {
+            LOGGER.debug("Failed to read class file " + displayName + "; assuming it's a test class and continuing", e);
+            return TestClass.forUnparseableFile(fallbackClassNameProvider.create());
+        }
+    }
+
     @Override
     public boolean processTestClass(final RelativeFile testClassFile) {
-        return processTestClass(testClassFile.getFile(), false, new Factory<String>() {
+        return processTestClass(readClassFile(testClassFile.getFile(), new Factory<String>() {
             @Override
             public String create() {
                 return testClassFile.getRelativePath().getPathString().replace(".class", "");
             }
-        });
+        }), false);
     }
 
     /**
@@ -148,9 +167,7 @@ public String create() {
      * class is a test class. First the package of the parent class is checked, if it is a java.lang or groovy.lang the class can't be a test class, otherwise the parent class is scanned. <p/> When a
      * parent class is a test class all the extending classes are marked as test classes.
      */
-    private boolean processTestClass(File testClassFile, boolean superClass, Factory<String> fallbackClassNameProvider) {
-        TestClass testClass = readClassFile(testClassFile, fallbackClassNameProvider);
-
+    private boolean processTestClass(TestClass testClass, boolean superClass) {
         boolean isTest = testClass.isTest();
 
         if (!isTest) { // scan parent class
@@ -159,14 +176,7 @@ private boolean processTestClass(File testClassFile, boolean superClass, Factory
             if (isKnownTestCaseClassName(superClassName)) {
                 isTest = true;
             } else {
-                File superClassFile = getSuperTestClassFile(superClassName);
-
-                if (superClassFile != null) {
-                    isTest = processSuperClass(superClassFile, superClassName);
-                } else {
-                    LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
-                        superClassName);
-                }
+                isTest = processSuperClass(superClassName);
             }
         }
 
@@ -177,19 +187,26 @@ private boolean processTestClass(File testClassFile, boolean superClass, Factory
 
     protected abstract boolean isKnownTestCaseClassName(String testCaseClassName);
 
-    private boolean processSuperClass(File testClassFile, String superClassName) {
-        boolean isTest;
-
-        Boolean isSuperTest = superClasses.get(testClassFile);
-
-        if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true, Factories.constant(superClassName));
+    /**
+     * Determines whether the given super class is a test class. The result is kept, so that each super class is only read once. When two threads
+     * check the same super class at the same time, both may read it, which is harmless as they come to the same result.
+     */
+    private boolean processSuperClass(String superClassName) {
+        Boolean isSuperTest = superClasses.get(superClassName);
+        if (isSuperTest != null) {
+            return isSuperTest;
+        }
 
-            superClasses.put(testClassFile, isTest);
+        boolean isTest = false;
+        TestClass superClass = readSuperTestClass(superClassName);
+        if (superClass != null) {
+            isTest = processTestClass(superClass, true);
         } else {
-            isTest = isSuperTest;
+            LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
+                superClassName);
         }
 
+        superClasses.put(superClassName, isTest);
         return isTest;
     }
 
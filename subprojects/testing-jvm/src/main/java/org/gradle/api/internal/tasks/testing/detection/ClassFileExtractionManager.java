@@ -15,35 +15,36 @@
  */
 package org.gradle.api.internal.tasks.testing.detection;
 
-import org.apache.commons.lang.text.StrBuilder;
+import org.apache.commons.io.IOUtils;
 import org.gradle.api.GradleException;
-import org.gradle.api.internal.file.temp.DefaultTemporaryFileProvider;
-import org.gradle.api.internal.file.temp.TemporaryFileProvider;
-import org.gradle.internal.Factory;
-import org.gradle.util.internal.JarUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
-import java.util.*;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
- * This class manages class file extraction from library jar files.
+ * This class manages reading class files from library jar files.
+ *
+ * <p>Class files are read straight out of the jar files, without being extracted to the file system first.
+ * Class files can be read from multiple threads once all library jars have been added.</p>
  */
 public class ClassFileExtractionManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(ClassFileExtractionManager.class);
     private final Map<String, Set<File>> packageJarFilesMappings;
-    private final Map<String, File> extractedJarClasses;
     private final Set<String> unextractableClasses;
-    private final TemporaryFileProvider tempDirProvider;
 
-    public ClassFileExtractionManager(final Factory<File> tempDirFactory) {
-        assert tempDirFactory != null;
-        tempDirProvider = new DefaultTemporaryFileProvider(tempDirFactory);
-        packageJarFilesMappings = new HashMap<String, Set<File>>();
-        extractedJarClasses = new HashMap<String, File>();
-        unextractableClasses = new TreeSet<String>();
+    public ClassFileExtractionManager() {
+        packageJarFilesMappings = new ConcurrentHashMap<String, Set<File>>();
+        unextractableClasses = ConcurrentHashMap.newKeySet();
     }
 
     /**
@@ -66,68 +67,62 @@ public void receivePackage(String packageName) {
     }
 
     /**
-     * Retrieve the file that contains the extracted class file.
+     * Retrieve the content of a class file from the library jars.
      *
      * <p>
-     * This method will extract the class file if it is
-     * not extracted yet. Extracted class files are deleted on exit of the Gradle process. The same class is only
-     * extracted once.
+     * The class file is read directly from the first jar containing it. A class which cannot be found is only
+     * looked up once.
      * </p>
      *
-     * @param className Name of the class to extract.
-     * @return File that contains the extracted class file.
+     * @param className Name of the class to read.
+     * @return The content of the class file, or null when no library jar contains the class.
      */
-    public File getLibraryClassFile(final String className) {
+    @Nullable
+    public byte[] getLibraryClassBytes(final String className) {
         if (unextractableClasses.contains(className)) {
             return null;
-        } else {
-            if (!extractedJarClasses.containsKey(className)) {
-                if (!extractClassFile(className)) {
-                    unextractableClasses.add(className);
-                }
-            }
-
-            return extractedJarClasses.get(className);
         }
+        byte[] classBytes = readClassFile(className);
+        if (classBytes == null) {
+            unextractableClasses.add(className);
+        }
+        return classBytes;
     }
 
-    private boolean extractClassFile(final String className) {
-        boolean classFileExtracted = false;
-
-        final File extractedClassFile = tempFile();
-        final String classFileName = new StrBuilder().append(className).append(".class").toString();
+    @Nullable
+    private byte[] readClassFile(final String className) {
+        final String classFileName = className + ".class";
         final String classNamePackage = classNamePackage(className);
-        final Set<File> packageJarFiles = packageJarFilesMappings.get(classNamePackage);
-
-        File classFileSourceJar = null;
-
-        if (packageJarFiles != null && !packageJarFiles.isEmpty()) {
-            final Iterator<File> packageJarFilesIt = packageJarFiles.iterator();
-
-            while (!classFileExtracted && packageJarFilesIt.hasNext()) {
-                final File jarFile = packageJarFilesIt.next();
+        final Set<File> packageJarFiles = classNamePackage == null ? null : packageJarFilesMappings.get(classNamePackage);
 
+        if (packageJarFiles != null) {
+            for (File jarFile : packageJarFiles) {
                 try {
-                    classFileExtracted = JarUtil.extractZipEntry(jarFile, classFileName, extractedClassFile);
-
-                    if (classFileExtracted) {
-                        classFileSourceJar = jarFile;
+                    ZipFile zipFile = new ZipFile(jarFile);
+                    try {
+                        ZipEntry zipEntry = zipFile.getEntry(classFileName);
+                        if (zipEntry != null) {
+                            LOGGER.debug("read class {} from {}", className, jarFile.getName());
+                            InputStream inputStream = zipFile.getInputStream(zipEntry);
+                            try {
+                                return IOUtils.toByteArray(inputStream);
+                            } finally {
+                                inputStream.close();
+                            }
+                        }
+                    } finally {
+                        zipFile.close();
                     }
                 } catch (IOException e) {
-                    throw new GradleException("failed to extract class file from jar (" + jarFile + ")", e);
+                    throw new GradleException("failed to read class file from jar (" + jarFile + ")", e);
                 }
             }
-
-            if (classFileExtracted) {
-                LOGGER.debug("extracted class {} from {}", className, classFileSourceJar.getName());
-
-                extractedJarClasses.put(className, extractedClassFile);
-            }
         } // super class not on the classpath - unable to scan parent class
 
-        return classFileExtracted;
+        return null;
     }
 
+    @Nullable
     private String classNamePackage(final String className) {
         final int lastSlashIndex = className.lastIndexOf('/');
 
@@ -137,8 +132,4 @@ private String classNamePackage(final String className) {
             return className.substring(0, lastSlashIndex + 1);
         }
     }
-
-    private File tempFile() {
-        return tempDirProvider.createTemporaryFile("jar_extract_", "_tmp"); // Could throw UncheckedIOException
-    }
 }
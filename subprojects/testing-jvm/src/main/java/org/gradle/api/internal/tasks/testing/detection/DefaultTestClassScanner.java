@@ -24,32 +24,50 @@
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 
+import javax.annotation.Nullable;
 import java.util.regex.Pattern;
 
 /**
  * The default test class scanner. Depending on the availability of a test framework detector,
  * a detection or filename scan is performed to find test classes.
+ *
+ * <p>A detection scan can use multiple threads to inspect the class files. Test classes are then handed
+ * to the test class processor in the order in which their detection completes, rather than in file order.</p>
  */
 public class DefaultTestClassScanner implements Runnable {
     private static final Pattern ANONYMOUS_CLASS_NAME = Pattern.compile(".*\\$\\d+");
     private final FileTree candidateClassFiles;
     private final TestFrameworkDetector testFrameworkDetector;
     private final TestClassProcessor testClassProcessor;
+    private final ExecutorFactory executorFactory;
+    private final int detectionThreads;
 
     public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
                                    TestClassProcessor testClassProcessor) {
+        this(candidateClassFiles, testFrameworkDetector, testClassProcessor, null, 1);
+    }
+
+    public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
+                                   TestClassProcessor testClassProcessor, @Nullable ExecutorFactory executorFactory, int detectionThreads) {
         this.candidateClassFiles = candidateClassFiles;
         this.testFrameworkDetector = testFrameworkDetector;
         this.testClassProcessor = testClassProcessor;
+        this.executorFactory = executorFactory;
+        this.detectionThreads = detectionThreads;
     }
 
     @Override
     public void run() {
         if (testFrameworkDetector == null) {
             filenameScan();
-        } else {
+        } else if (executorFactory == null || detectionThreads <= 1) {
             detectionScan();
+        } else {
+            parallelDetectionScan();
         }
     }
 
@@ -63,6 +81,27 @@ public void visitClassFile(FileVisitDetails fileDetails) {
         });
     }
 
+    private void parallelDetectionScan() {
+        testFrameworkDetector.startDetection(new SynchronizedTestClassProcessor(testClassProcessor));
+        final ManagedExecutor executor = executorFactory.create("Test class detection", detectionThreads);
+        try {
+            candidateClassFiles.visit(new ClassFileVisitor() {
+                @Override
+                public void visitClassFile(FileVisitDetails fileDetails) {
+                    final RelativeFile testClassFile = new RelativeFile(fileDetails.getFile(), fileDetails.getRelativePath());
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            testFrameworkDetector.processTestClass(testClassFile);
+                        }
+                    });
+                }
+            });
+        } finally {
+            executor.stop();
+        }
+    }
+
     private void filenameScan() {
         candidateClassFiles.visit(new ClassFileVisitor() {
             @Override
@@ -98,6 +137,37 @@ public boolean isReproducibleFileOrder() {
         }
     }
 
+    /**
+     * Hands the test classes detected by multiple threads to the test class processor one at a time.
+     */
+    private static class SynchronizedTestClassProcessor implements TestClassProcessor {
+        private final TestClassProcessor delegate;
+
+        SynchronizedTestClassProcessor(TestClassProcessor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void startProcessing(TestResultProcessor resultProcessor) {
+            delegate.startProcessing(resultProcessor);
+        }
+
+        @Override
+        public synchronized void processTestClass(TestClassRunInfo testClass) {
+            delegate.processTestClass(testClass);
+        }
+
+        @Override
+        public synchronized void stop() {
+            delegate.stop();
+        }
+
+        @Override
+        public void stopNow() {
+            delegate.stopNow();
+        }
+    }
+
     private String getClassName(FileVisitDetails fileDetails) {
         return fileDetails.getRelativePath().getPathString().replaceAll("\\.class", "").replace('/', '.');
     }
@@ -24,19 +24,27 @@
 import org.gradle.api.internal.tasks.testing.TestExecuter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestingInternalOptions;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.PatternMatchTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.PreviousTestClassDurations;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.RunLongestFirstTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RunPreviousFailedFirstTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.ShardingTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
+import org.gradle.api.internal.tasks.testing.selection.CarryForwardTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.selection.TestClassSelection;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.worker.ForkedTestClasspath;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.Factory;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.time.Clock;
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
@@ -50,30 +58,36 @@
 public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
 
     private static final Logger LOGGER = Logging.getLogger(DefaultTestExecuter.class);
+    // One test class being run by the worker, and the next one ready to run as soon as it has finished
+    private static final int MAX_IN_FLIGHT_TEST_CLASSES_PER_FORK = 2;
 
     private final WorkerProcessFactory workerFactory;
     private final ActorFactory actorFactory;
+    private final ExecutorFactory executorFactory;
     private final ForkedTestClasspathFactory testClasspathFactory;
     private final WorkerLeaseService workerLeaseService;
     private final int maxWorkerCount;
     private final Clock clock;
     private final DocumentationRegistry documentationRegistry;
     private final DefaultTestFilter testFilter;
+    private final InternalOptions internalOptions;
     private TestClassProcessor processor;
 
     public DefaultTestExecuter(
-        WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry,
+        WorkerProcessFactory workerFactory, ActorFactory actorFactory, ExecutorFactory executorFactory, ModuleRegistry moduleRegistry,
         WorkerLeaseService workerLeaseService, int maxWorkerCount,
-        Clock clock, DocumentationRegistry documentationRegistry, DefaultTestFilter testFilter
+        Clock clock, DocumentationRegistry documentationRegistry, DefaultTestFilter testFilter, InternalOptions internalOptions
     ) {
         this.workerFactory = workerFactory;
         this.actorFactory = actorFactory;
+        this.executorFactory = executorFactory;
         this.testClasspathFactory = new ForkedTestClasspathFactory(moduleRegistry);
         this.workerLeaseService = workerLeaseService;
         this.maxWorkerCount = maxWorkerCount;
         this.clock = clock;
         this.documentationRegistry = documentationRegistry;
         this.testFilter = testFilter;
+        this.internalOptions = internalOptions;
     }
 
     @Override
@@ -86,11 +100,13 @@ public void execute(final JvmTestExecutionSpec testExecutionSpec, TestResultProc
             testFramework, testExecutionSpec.getTestIsModule()
         );
 
+        final boolean pullTestClasses = internalOptions.getOption(TestingInternalOptions.PULL_TEST_CLASSES).get() && testFramework.getRunsTestClassesOnArrival();
+        final boolean coalesceOutput = internalOptions.getOption(TestingInternalOptions.COALESCE_OUTPUT).get();
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             @Override
             public TestClassProcessor create() {
                 return new ForkingTestClassProcessor(workerLeaseService, workerFactory, testInstanceFactory, testExecutionSpec.getJavaForkOptions(),
-                    classpath, testFramework.getWorkerConfigurationAction(), documentationRegistry);
+                    classpath, testFramework.getWorkerConfigurationAction(), documentationRegistry, pullTestClasses ? MAX_IN_FLIGHT_TEST_CLASSES_PER_FORK : 0, coalesceOutput);
             }
         };
         final Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
@@ -99,10 +115,21 @@ public TestClassProcessor create() {
                 return new RestartEveryNTestClassProcessor(forkingProcessorFactory, testExecutionSpec.getForkEvery());
             }
         };
-        processor =
-            new PatternMatchTestClassProcessor(testFilter,
+        PreviousTestClassDurations durations = new PreviousTestClassDurations(testExecutionSpec.getPreviousTestClassDurations());
+        boolean startFirstWorkerEagerly = internalOptions.getOption(TestingInternalOptions.START_FIRST_WORKER_EAGERLY).get();
+        TestClassProcessor runningProcessor =
+            new RunLongestFirstTestClassProcessor(durations,
                 new RunPreviousFailedFirstTestClassProcessor(testExecutionSpec.getPreviousFailedTestClasses(),
-                    new MaxNParallelTestClassProcessor(getMaxParallelForks(testExecutionSpec), reforkingProcessorFactory, actorFactory)));
+                    new MaxNParallelTestClassProcessor(getMaxParallelForks(testExecutionSpec), reforkingProcessorFactory, actorFactory, durations, pullTestClasses, startFirstWorkerEagerly)));
+        TestClassSelection testClassSelection = testExecutionSpec.getTestClassSelection();
+        if (testClassSelection != null) {
+            testClassSelection.storeSnapshot();
+            runningProcessor = new CarryForwardTestClassProcessor(testClassSelection.getCarriedForwardTestClasses(), testClassSelection.getPreviousResultsDir(), runningProcessor);
+        }
+        if (testExecutionSpec.getTestClassShard() != null) {
+            runningProcessor = new ShardingTestClassProcessor(testExecutionSpec.getTestClassShard(), runningProcessor);
+        }
+        processor = new PatternMatchTestClassProcessor(testFilter, runningProcessor);
 
         final FileTree testClassFiles = testExecutionSpec.getCandidateClassFiles();
 
@@ -111,7 +138,8 @@ public TestClassProcessor create() {
             TestFrameworkDetector testFrameworkDetector = testFramework.getDetector();
             testFrameworkDetector.setTestClasses(new ArrayList<File>(testExecutionSpec.getTestClassesDirs().getFiles()));
             testFrameworkDetector.setTestClasspath(classpath.getApplicationClasspath());
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            int detectionThreads = internalOptions.getOption(TestingInternalOptions.PARALLEL_DETECTION).get() ? Math.min(maxWorkerCount, Runtime.getRuntime().availableProcessors()) : 1;
+            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor, executorFactory, detectionThreads);
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
         }
@@ -68,7 +68,7 @@ private JUnitTestFramework(DefaultTestFilter filter, boolean useImplementationDe
         this.useImplementationDependencies = useImplementationDependencies;
         this.options = options;
         this.testTaskTemporaryDir = testTaskTemporaryDir;
-        this.detector = new JUnitDetector(new ClassFileExtractionManager(testTaskTemporaryDir));
+        this.detector = new JUnitDetector(new ClassFileExtractionManager());
         this.dryRun = dryRun;
     }
 
@@ -113,6 +113,11 @@ public boolean getUseDistributionDependencies() {
         return useImplementationDependencies;
     }
 
+    @Override
+    public boolean getRunsTestClassesOnArrival() {
+        return true;
+    }
+
     @Override
     public JUnitOptions getOptions() {
         return options;
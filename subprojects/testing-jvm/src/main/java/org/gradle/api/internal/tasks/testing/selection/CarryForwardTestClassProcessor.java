@@ -0,0 +1,154 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.junit.result.BinaryResultBackedTestResultsProvider;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.id.LongIdGenerator;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Does not run the test classes whose results are carried forward from the previous run, and reports the results of the previous run for them instead.
+ *
+ * The previous results are reported once all other test classes have completed, so that they are not reported concurrently with the results of the running test classes.
+ * The results of the nested classes of a carried forward test class are reported along with it, unless the nested class itself was run.
+ */
+public class CarryForwardTestClassProcessor implements TestClassProcessor {
+    private static final TestOutputEvent.Destination[] DESTINATIONS = TestOutputEvent.Destination.values();
+
+    private final Set<String> carriedForwardTestClasses;
+    private final File previousResultsDir;
+    private final TestClassProcessor delegate;
+    private final IdGenerator<?> idGenerator = new CompositeIdGenerator("carried-forward", new LongIdGenerator());
+    private final Set<String> skippedTestClasses = new HashSet<>();
+    private final Set<String> executedTestClasses = new HashSet<>();
+    private TestResultProcessor resultProcessor;
+    private volatile boolean stoppedNow;
+
+    public CarryForwardTestClassProcessor(Set<String> carriedForwardTestClasses, File previousResultsDir, TestClassProcessor delegate) {
+        this.carriedForwardTestClasses = carriedForwardTestClasses;
+        this.previousResultsDir = previousResultsDir;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+        delegate.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (carriedForwardTestClasses.contains(testClass.getTestClassName())) {
+            skippedTestClasses.add(testClass.getTestClassName());
+        } else {
+            executedTestClasses.add(testClass.getTestClassName());
+            delegate.processTestClass(testClass);
+        }
+    }
+
+    @Override
+    public void stop() {
+        delegate.stop();
+        if (!stoppedNow && !skippedTestClasses.isEmpty()) {
+            reportPreviousResults();
+        }
+    }
+
+    @Override
+    public void stopNow() {
+        stoppedNow = true;
+        delegate.stopNow();
+    }
+
+    private void reportPreviousResults() {
+        TestResultsProvider previousResults = new BinaryResultBackedTestResultsProvider(previousResultsDir);
+        try {
+            previousResults.visitClasses(classResult -> {
+                if (isSkipped(classResult.getClassName())) {
+                    report(previousResults, classResult);
+                }
+            });
+        } finally {
+            CompositeStoppable.stoppable(previousResults).stop();
+        }
+    }
+
+    private boolean isSkipped(String className) {
+        if (executedTestClasses.contains(className)) {
+            return false;
+        }
+        String outerClassName = className;
+        while (true) {
+            if (skippedTestClasses.contains(outerClassName)) {
+                return true;
+            }
+            int nestedClassSeparator = outerClassName.lastIndexOf('$');
+            if (nestedClassSeparator < 0) {
+                return false;
+            }
+            outerClassName = outerClassName.substring(0, nestedClassSeparator);
+        }
+    }
+
+    private void report(TestResultsProvider previousResults, TestClassResult classResult) {
+        Object classId = idGenerator.generateId();
+        resultProcessor.started(new DefaultTestClassDescriptor(classId, classResult.getClassName(), classResult.getClassDisplayName()), new TestStartEvent(classResult.getStartTime()));
+        for (TestOutputEvent.Destination destination : DESTINATIONS) {
+            StringWriter output = new StringWriter();
+            previousResults.writeNonTestOutput(classResult.getId(), destination, output);
+            reportOutput(classId, destination, output);
+        }
+        for (TestMethodResult methodResult : classResult.getResults()) {
+            Object testId = idGenerator.generateId();
+            DefaultTestDescriptor test = new DefaultTestDescriptor(testId, classResult.getClassName(), methodResult.getName(), classResult.getClassDisplayName(), methodResult.getDisplayName());
+            resultProcessor.started(test, new TestStartEvent(methodResult.getEndTime() - methodResult.getDuration(), classId));
+            for (TestOutputEvent.Destination destination : DESTINATIONS) {
+                StringWriter output = new StringWriter();
+                previousResults.writeTestOutput(classResult.getId(), methodResult.getId(), destination, output);
+                reportOutput(testId, destination, output);
+            }
+            resultProcessor.completed(testId, new TestCompleteEvent(methodResult.getEndTime(), methodResult.getResultType()));
+        }
+        resultProcessor.completed(classId, new TestCompleteEvent(classResult.getStartTime() + classResult.getDuration()));
+    }
+
+    private void reportOutput(Object testId, TestOutputEvent.Destination destination, StringWriter output) {
+        if (output.getBuffer().length() > 0) {
+            resultProcessor.output(testId, new DefaultTestOutputEvent(destination, output.toString()));
+        }
+    }
+}
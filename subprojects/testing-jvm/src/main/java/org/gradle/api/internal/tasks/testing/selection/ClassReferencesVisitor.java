@@ -0,0 +1,169 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.internal.classanalysis.AsmConstants;
+import org.gradle.internal.hash.HashCode;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Collects the classes referenced by a class file.
+ *
+ * This includes the classes referenced from the constant pool, which covers the super types and the classes used by the method bodies,
+ * as well as the types in field and method descriptors and in annotations, including class literals used as annotation values.
+ * Classes which are only used via reflection or are looked up by name are not found.
+ */
+class ClassReferencesVisitor extends ClassVisitor {
+    private static final int CONSTANT_CLASS = 7;
+
+    private final Set<String> referencedClasses = new HashSet<>();
+    private final AnnotationVisitor annotationVisitor = new ReferencesAnnotationVisitor();
+    private final FieldVisitor fieldVisitor = new ReferencesFieldVisitor();
+    private final MethodVisitor methodVisitor = new ReferencesMethodVisitor();
+    private boolean declaresConstants;
+
+    private ClassReferencesVisitor() {
+        super(AsmConstants.ASM_LEVEL);
+    }
+
+    static ClassSnapshot analyze(byte[] classFile, HashCode hash) {
+        ClassReader reader = new ClassReader(classFile);
+        ClassReferencesVisitor visitor = new ClassReferencesVisitor();
+        visitor.collectConstantPoolClasses(reader);
+        reader.accept(visitor, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        visitor.referencedClasses.remove(reader.getClassName().replace('/', '.'));
+        return new ClassSnapshot(hash, visitor.referencedClasses, visitor.declaresConstants);
+    }
+
+    private void collectConstantPoolClasses(ClassReader reader) {
+        char[] charBuffer = new char[reader.getMaxStringLength()];
+        for (int i = 1; i < reader.getItemCount(); i++) {
+            int itemOffset = reader.getItem(i);
+            if (itemOffset > 0 && reader.readByte(itemOffset - 1) == CONSTANT_CLASS) {
+                addType(Type.getObjectType(reader.readUTF8(itemOffset, charBuffer)));
+            }
+        }
+    }
+
+    @Override
+    public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+        addType(Type.getType(descriptor));
+        if ((access & Opcodes.ACC_PRIVATE) == 0 && (access & Opcodes.ACC_STATIC) != 0 && (access & Opcodes.ACC_FINAL) != 0 && value != null) {
+            declaresConstants = true;
+        }
+        return fieldVisitor;
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+        Type methodType = Type.getMethodType(descriptor);
+        addType(methodType.getReturnType());
+        for (Type argumentType : methodType.getArgumentTypes()) {
+            addType(argumentType);
+        }
+        return methodVisitor;
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+        addType(Type.getType(descriptor));
+        return annotationVisitor;
+    }
+
+    private void addType(Type type) {
+        while (type.getSort() == Type.ARRAY) {
+            type = type.getElementType();
+        }
+        if (type.getSort() == Type.OBJECT) {
+            referencedClasses.add(type.getClassName());
+        }
+    }
+
+    private class ReferencesAnnotationVisitor extends AnnotationVisitor {
+        ReferencesAnnotationVisitor() {
+            super(AsmConstants.ASM_LEVEL);
+        }
+
+        @Override
+        public void visit(String name, Object value) {
+            if (value instanceof Type) {
+                addType((Type) value);
+            }
+        }
+
+        @Override
+        public void visitEnum(String name, String descriptor, String value) {
+            addType(Type.getType(descriptor));
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, String descriptor) {
+            addType(Type.getType(descriptor));
+            return this;
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            return this;
+        }
+    }
+
+    private class ReferencesFieldVisitor extends FieldVisitor {
+        ReferencesFieldVisitor() {
+            super(AsmConstants.ASM_LEVEL);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            addType(Type.getType(descriptor));
+            return annotationVisitor;
+        }
+    }
+
+    private class ReferencesMethodVisitor extends MethodVisitor {
+        ReferencesMethodVisitor() {
+            super(AsmConstants.ASM_LEVEL);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            addType(Type.getType(descriptor));
+            return annotationVisitor;
+        }
+
+        @Override
+        public AnnotationVisitor visitParameterAnnotation(int parameter, String descriptor, boolean visible) {
+            addType(Type.getType(descriptor));
+            return annotationVisitor;
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotationDefault() {
+            return annotationVisitor;
+        }
+    }
+}
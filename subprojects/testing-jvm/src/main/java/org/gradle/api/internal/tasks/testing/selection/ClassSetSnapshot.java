@@ -0,0 +1,144 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The classes on the test runtime classpath which were analyzed for a test run, together with a hash of everything else the test run depended on.
+ *
+ * The snapshot is stored next to the binary test results of the run, so that it always describes the inputs which produced these results.
+ */
+public class ClassSetSnapshot {
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final String SNAPSHOT_FILE_NAME = "classes.bin";
+
+    private final HashCode configurationHash;
+    private final Map<String, ClassSnapshot> classes;
+
+    public ClassSetSnapshot(HashCode configurationHash, Map<String, ClassSnapshot> classes) {
+        this.configurationHash = configurationHash;
+        this.classes = classes;
+    }
+
+    /**
+     * The hash of the task inputs other than the analyzed classes, such as the input properties, the jars on the classpath and the resources.
+     */
+    public HashCode getConfigurationHash() {
+        return configurationHash;
+    }
+
+    public Map<String, ClassSnapshot> getClasses() {
+        return classes;
+    }
+
+    /**
+     * Reads the snapshot stored in the given binary results directory, if there is one with the current format.
+     */
+    @Nullable
+    public static ClassSetSnapshot read(File resultsDir) {
+        File snapshotFile = new File(resultsDir, SNAPSHOT_FILE_NAME);
+        if (!snapshotFile.isFile()) {
+            return null;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(snapshotFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != SNAPSHOT_VERSION) {
+                    return null;
+                }
+                return read(decoder);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ClassSetSnapshot read(Decoder decoder) throws IOException {
+        HashCode configurationHash = HashCode.fromBytes(decoder.readBinary());
+        int classCount = decoder.readSmallInt();
+        Map<String, ClassSnapshot> classes = new HashMap<>(classCount);
+        for (int i = 0; i < classCount; i++) {
+            String className = decoder.readString();
+            HashCode hash = HashCode.fromBytes(decoder.readBinary());
+            boolean declaresConstants = decoder.readBoolean();
+            int referenceCount = decoder.readSmallInt();
+            Set<String> referencedClasses = new HashSet<>(referenceCount);
+            for (int j = 0; j < referenceCount; j++) {
+                referencedClasses.add(decoder.readString());
+            }
+            classes.put(className, new ClassSnapshot(hash, referencedClasses, declaresConstants));
+        }
+        return new ClassSetSnapshot(configurationHash, classes);
+    }
+
+    /**
+     * Stores this snapshot in the given binary results directory.
+     */
+    public void write(File resultsDir) {
+        try {
+            OutputStream outputStream = new FileOutputStream(new File(resultsDir, SNAPSHOT_FILE_NAME));
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(SNAPSHOT_VERSION);
+                write(encoder);
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(Encoder encoder) throws IOException {
+        encoder.writeBinary(configurationHash.toByteArray());
+        encoder.writeSmallInt(classes.size());
+        for (Map.Entry<String, ClassSnapshot> entry : classes.entrySet()) {
+            ClassSnapshot snapshot = entry.getValue();
+            encoder.writeString(entry.getKey());
+            encoder.writeBinary(snapshot.getHash().toByteArray());
+            encoder.writeBoolean(snapshot.isDeclaresConstants());
+            encoder.writeSmallInt(snapshot.getReferencedClasses().size());
+            for (String referencedClass : snapshot.getReferencedClasses()) {
+                encoder.writeString(referencedClass);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.RelativePathTracker;
+import org.gradle.internal.snapshot.SnapshotVisitResult;
+import org.gradle.internal.snapshot.ValueSnapshotter;
+import org.gradle.internal.snapshot.ValueSnapshottingException;
+import org.gradle.internal.vfs.FileSystemAccess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Takes a {@link ClassSetSnapshot} of the class directories on the test runtime classpath.
+ *
+ * The class files in these directories are analyzed for the classes they reference. Everything else the test run depends on,
+ * such as jars, resources and other input files, only contributes to the configuration hash of the snapshot.
+ * The file hashes are taken from the virtual file system, and class files which did not change since the previous snapshot are not analyzed again.
+ */
+public class ClassSetSnapshotter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassSetSnapshotter.class);
+    private static final String CLASS_FILE_EXTENSION = ".class";
+    private static final String MODULE_INFO_CLASS = "module-info.class";
+
+    private final FileSystemAccess fileSystemAccess;
+    private final ValueSnapshotter valueSnapshotter;
+
+    @Inject
+    public ClassSetSnapshotter(FileSystemAccess fileSystemAccess, ValueSnapshotter valueSnapshotter) {
+        this.fileSystemAccess = fileSystemAccess;
+        this.valueSnapshotter = valueSnapshotter;
+    }
+
+    /**
+     * @param inputProperties the non-file inputs of the test run
+     * @param classpath the classpath and module path of the test run, in order
+     * @param inputFiles all input files of the test run, which may include files from the classpath
+     * @param previous the snapshot of the previous run, whose analysis is reused for unchanged class files
+     * @return the snapshot, or null when the input properties cannot be snapshotted
+     */
+    @Nullable
+    public ClassSetSnapshot snapshot(Map<String, Object> inputProperties, Iterable<File> classpath, Iterable<File> inputFiles, @Nullable ClassSetSnapshot previous) {
+        Hasher configurationHasher = Hashing.newHasher();
+        try {
+            for (Map.Entry<String, Object> property : new TreeMap<>(inputProperties).entrySet()) {
+                configurationHasher.putString(property.getKey());
+                valueSnapshotter.snapshot(property.getValue()).appendToHasher(configurationHasher);
+            }
+        } catch (ValueSnapshottingException e) {
+            LOGGER.debug("Could not snapshot the input properties of the test run.", e);
+            return null;
+        }
+        Map<String, ClassSnapshot> classes = new HashMap<>();
+        List<String> classDirectories = new ArrayList<>();
+
+        for (File entry : classpath) {
+            FileSystemLocationSnapshot entrySnapshot = fileSystemAccess.read(entry.getAbsolutePath());
+            configurationHasher.putString(entrySnapshot.getAbsolutePath());
+            if (entrySnapshot.getType() == FileType.Directory) {
+                classDirectories.add(entrySnapshot.getAbsolutePath() + File.separator);
+                visitClassDirectory(entrySnapshot, classes, configurationHasher, previous);
+            } else {
+                configurationHasher.putHash(entrySnapshot.getHash());
+            }
+        }
+
+        SortedSet<String> otherInputFiles = new TreeSet<>();
+        for (File inputFile : inputFiles) {
+            String path = inputFile.getAbsolutePath();
+            if (!isInAnyDirectory(path, classDirectories)) {
+                otherInputFiles.add(path);
+            }
+        }
+        for (String path : otherInputFiles) {
+            configurationHasher.putString(path);
+            configurationHasher.putHash(fileSystemAccess.read(path).getHash());
+        }
+
+        return new ClassSetSnapshot(configurationHasher.hash(), classes);
+    }
+
+    private void visitClassDirectory(FileSystemLocationSnapshot directorySnapshot, Map<String, ClassSnapshot> classes, Hasher configurationHasher, @Nullable ClassSetSnapshot previous) {
+        directorySnapshot.accept(new RelativePathTracker(), (snapshot, relativePath) -> {
+            if (relativePath.isRoot() || snapshot.getType() != FileType.RegularFile) {
+                return SnapshotVisitResult.CONTINUE;
+            }
+            String path = relativePath.toRelativePath();
+            String className = classNameOf(path);
+            ClassSnapshot classSnapshot = className == null || classes.containsKey(className) ? null : snapshotClass(className, snapshot, previous);
+            if (classSnapshot != null) {
+                classes.put(className, classSnapshot);
+            } else {
+                // Resources, classes shadowed by an earlier classpath entry and classes which cannot be analyzed
+                configurationHasher.putString(path);
+                configurationHasher.putHash(snapshot.getHash());
+            }
+            return SnapshotVisitResult.CONTINUE;
+        });
+    }
+
+    @Nullable
+    private static ClassSnapshot snapshotClass(String className, FileSystemLocationSnapshot snapshot, @Nullable ClassSetSnapshot previous) {
+        ClassSnapshot previousClass = previous == null ? null : previous.getClasses().get(className);
+        if (previousClass != null && previousClass.getHash().equals(snapshot.getHash())) {
+            return previousClass;
+        }
+        byte[] classFile;
+        try {
+            classFile = Files.readAllBytes(Paths.get(snapshot.getAbsolutePath()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            return ClassReferencesVisitor.analyze(classFile, snapshot.getHash());
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not analyze class file {}.", snapshot.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static String classNameOf(String relativePath) {
+        if (!relativePath.endsWith(CLASS_FILE_EXTENSION) || relativePath.endsWith(MODULE_INFO_CLASS)) {
+            return null;
+        }
+        return relativePath.substring(0, relativePath.length() - CLASS_FILE_EXTENSION.length()).replace('/', '.');
+    }
+
+    private static boolean isInAnyDirectory(String path, List<String> directories) {
+        // The directories themselves are part of the input files as well
+        String pathWithSeparator = path + File.separator;
+        for (String directory : directories) {
+            if (pathWithSeparator.startsWith(directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.internal.hash.HashCode;
+
+import java.util.Set;
+
+/**
+ * The content hash of a class file and the classes it references.
+ */
+public class ClassSnapshot {
+    private final HashCode hash;
+    private final Set<String> referencedClasses;
+    private final boolean declaresConstants;
+
+    public ClassSnapshot(HashCode hash, Set<String> referencedClasses, boolean declaresConstants) {
+        this.hash = hash;
+        this.referencedClasses = referencedClasses;
+        this.declaresConstants = declaresConstants;
+    }
+
+    public HashCode getHash() {
+        return hash;
+    }
+
+    /**
+     * The names of the classes referenced by this class, which may include classes which are not part of the analyzed class set.
+     */
+    public Set<String> getReferencedClasses() {
+        return referencedClasses;
+    }
+
+    /**
+     * Whether the class declares constants which other classes can inline, so that they depend on this class without referencing it.
+     */
+    public boolean isDeclaresConstants() {
+        return declaresConstants;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import java.io.File;
+import java.util.Set;
+
+/**
+ * Describes which test classes of a test run do not need to run again, because their results from the previous run are still valid.
+ */
+public class TestClassSelection {
+    private final ClassSetSnapshot snapshot;
+    private final File resultsDir;
+    private final Set<String> carriedForwardTestClasses;
+    private final File previousResultsDir;
+
+    /**
+     * @param snapshot the snapshot of the classes used by this run
+     * @param resultsDir the directory the binary results of this run are written to
+     * @param carriedForwardTestClasses the test classes whose results are carried forward from the previous run
+     * @param previousResultsDir the directory containing the binary results of the previous run
+     */
+    public TestClassSelection(ClassSetSnapshot snapshot, File resultsDir, Set<String> carriedForwardTestClasses, File previousResultsDir) {
+        this.snapshot = snapshot;
+        this.resultsDir = resultsDir;
+        this.carriedForwardTestClasses = carriedForwardTestClasses;
+        this.previousResultsDir = previousResultsDir;
+    }
+
+    public Set<String> getCarriedForwardTestClasses() {
+        return carriedForwardTestClasses;
+    }
+
+    public File getPreviousResultsDir() {
+        return previousResultsDir;
+    }
+
+    /**
+     * Stores the snapshot of the classes with the results of this run, so that the next run can determine the test classes affected by its changes.
+     */
+    public void storeSnapshot() {
+        snapshot.write(resultsDir);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the test classes which are not affected by the changes between two {@link ClassSetSnapshot}s.
+ *
+ * A test class is affected when it changed, or when it transitively references a class which changed, was added or was removed.
+ * When the configuration hash changed, or when a changed class declares constants which other classes may have inlined, every test class is affected.
+ */
+public class TestClassSelector {
+
+    /**
+     * Returns the given test classes which are not affected by the changes between the snapshots.
+     */
+    public Set<String> findUnaffectedTestClasses(@Nullable ClassSetSnapshot previous, ClassSetSnapshot current, Set<String> testClasses) {
+        if (previous == null || !previous.getConfigurationHash().equals(current.getConfigurationHash())) {
+            return Collections.emptySet();
+        }
+
+        Set<String> changedClasses = new HashSet<>();
+        if (collectChangedClasses(previous, current, changedClasses) || collectChangedClasses(current, previous, changedClasses)) {
+            return Collections.emptySet();
+        }
+
+        Set<String> affectedClasses = collectDependents(current, changedClasses);
+        Set<String> unaffectedTestClasses = new HashSet<>();
+        for (String testClass : testClasses) {
+            if (current.getClasses().containsKey(testClass) && !affectedClasses.contains(testClass)) {
+                unaffectedTestClasses.add(testClass);
+            }
+        }
+        return unaffectedTestClasses;
+    }
+
+    /**
+     * Collects the classes of the first snapshot which are missing or different in the second one.
+     *
+     * @return whether a changed class declares constants
+     */
+    private static boolean collectChangedClasses(ClassSetSnapshot snapshot, ClassSetSnapshot other, Set<String> changedClasses) {
+        for (Map.Entry<String, ClassSnapshot> entry : snapshot.getClasses().entrySet()) {
+            ClassSnapshot otherClass = other.getClasses().get(entry.getKey());
+            if (otherClass == null || !otherClass.getHash().equals(entry.getValue().getHash())) {
+                if (entry.getValue().isDeclaresConstants()) {
+                    return true;
+                }
+                changedClasses.add(entry.getKey());
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> collectDependents(ClassSetSnapshot snapshot, Set<String> classes) {
+        Map<String, Set<String>> dependents = new HashMap<>();
+        for (Map.Entry<String, ClassSnapshot> entry : snapshot.getClasses().entrySet()) {
+            for (String referencedClass : entry.getValue().getReferencedClasses()) {
+                dependents.computeIfAbsent(referencedClass, key -> new HashSet<>()).add(entry.getKey());
+            }
+        }
+
+        Set<String> result = new HashSet<>(classes);
+        Deque<String> queue = new ArrayDeque<>(classes);
+        while (!queue.isEmpty()) {
+            Set<String> classDependents = dependents.get(queue.removeFirst());
+            if (classDependents != null) {
+                for (String dependent : classDependents) {
+                    if (result.add(dependent)) {
+                        queue.addLast(dependent);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -64,7 +64,7 @@ private TestNGTestFramework(DefaultTestFilter filter, ObjectFactory objects, Fac
         this.testTaskTemporaryDir = testTaskTemporaryDir;
         this.htmlReport = htmlReport;
         this.options = options;
-        this.detector = new TestNGDetector(new ClassFileExtractionManager(testTaskTemporaryDir));
+        this.detector = new TestNGDetector(new ClassFileExtractionManager());
         this.dryRun = dryRun;
 
         conventionMapOutputDirectory(options, htmlReport);
@@ -19,28 +19,38 @@
 import com.google.common.collect.Lists;
 import groovy.lang.Closure;
 import groovy.lang.DelegatesTo;
+import org.apache.commons.io.FileUtils;
 import org.gradle.StartParameter;
 import org.gradle.api.Action;
 import org.gradle.api.Incubating;
+import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.NonNullApi;
 import org.gradle.api.Transformer;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec;
 import org.gradle.api.internal.tasks.testing.TestExecutableUtils;
 import org.gradle.api.internal.tasks.testing.TestExecuter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
+import org.gradle.api.internal.tasks.testing.TestingInternalOptions;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer;
 import org.gradle.api.internal.tasks.testing.junitplatform.JUnitPlatformTestFramework;
+import org.gradle.api.internal.tasks.testing.processors.TestClassShard;
+import org.gradle.api.internal.tasks.testing.selection.ClassSetSnapshot;
+import org.gradle.api.internal.tasks.testing.selection.ClassSetSnapshotter;
+import org.gradle.api.internal.tasks.testing.selection.TestClassSelection;
+import org.gradle.api.internal.tasks.testing.selection.TestClassSelector;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
 import org.gradle.api.internal.tasks.testing.worker.TestWorker;
 import org.gradle.api.jvm.ModularitySpec;
@@ -53,9 +63,11 @@
 import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.IgnoreEmptyDirectories;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.SkipWhenEmpty;
@@ -70,7 +82,9 @@
 import org.gradle.internal.Cast;
 import org.gradle.internal.Factory;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.buildoption.InternalOptions;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.deprecation.DeprecationLogger;
 import org.gradle.internal.jvm.DefaultModularitySpec;
 import org.gradle.internal.jvm.JavaModuleDetector;
@@ -89,14 +103,17 @@
 import org.gradle.process.internal.JavaForkOptionsFactory;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.internal.ConfigureUtil;
+import org.gradle.util.internal.GUtil;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
-import java.util.Collections;
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
@@ -164,6 +181,9 @@
 @CacheableTask
 public abstract class Test extends AbstractTestTask implements JavaForkOptions, PatternFilterable {
 
+    private static final String PREVIOUS_RESULTS_DIR_NAME = "previous-results";
+    private static final String SHARD_DURATIONS_FILE_NAME = "test-class-durations.properties";
+
     private final JavaForkOptions forkOptions;
     private final ModularitySpec modularity;
     private final Property<JavaLauncher> javaLauncher;
@@ -177,6 +197,11 @@ public abstract class Test extends AbstractTestTask implements JavaForkOptions,
     private long forkEvery;
     private int maxParallelForks = 1;
     private TestExecuter<JvmTestExecutionSpec> testExecuter;
+    // The results of the previous run and the test classes selected from them, determined when the task executes
+    @Nullable
+    private PreviousTestClassResults previousTestClassResults;
+    @Nullable
+    private TestClassSelection testClassSelection;
 
     public Test() {
         ObjectFactory objectFactory = getObjectFactory();
@@ -548,6 +573,53 @@ public boolean getFailFast() {
     @Option(option = "test-dry-run", description = "Simulate test execution.")
     public abstract Property<Boolean> getDryRun();
 
+    /**
+     * The index of the shard of the test classes this task runs, starting at 0. Only used when {@link #getShardCount()} is set.
+     *
+     * @return property for the index of the shard of the test classes to run
+     * @since 8.3
+     */
+    @Incubating
+    @Input
+    @Optional
+    public abstract Property<Integer> getShardIndex();
+
+    /**
+     * The number of shards to split the test classes into, so that each shard can run on a different machine. When set, this task only runs the
+     * test classes of the shard given by {@link #getShardIndex()}. Every test class is part of exactly one shard, so running all shards runs all
+     * test classes.
+     *
+     * <p>
+     *     When a shard runs, the durations of the test classes it executed are written to {@code test-class-durations.properties} in the
+     *     {@link #getBinaryResultsDirectory() binary results directory}. Concatenating these files for all shards produces a file which can be
+     *     used as {@link #getShardDurationsFile()}.
+     * </p>
+     *
+     * @return property for the number of shards to split the test classes into
+     * @since 8.3
+     */
+    @Incubating
+    @Input
+    @Optional
+    public abstract Property<Integer> getShardCount();
+
+    /**
+     * A properties file mapping test class names to their durations in milliseconds. The test classes listed in this file are split into shards
+     * of about the same total duration. The remaining test classes are split by the hash of their name.
+     *
+     * <p>
+     *     All shards should use the same file, so that they agree on the shard each test class belongs to.
+     * </p>
+     *
+     * @return property for the file containing the durations of the test classes
+     * @since 8.3
+     */
+    @Incubating
+    @InputFile
+    @Optional
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getShardDurationsFile();
+
     /**
      * {@inheritDoc}
      */
@@ -656,7 +728,70 @@ protected JvmTestExecutionSpec createTestExecutionSpec() {
         boolean testIsModule = javaModuleDetector.isModule(modularity.getInferModulePath().get(), getTestClassesDirs());
         FileCollection classpath = javaModuleDetector.inferClasspath(testIsModule, stableClasspath);
         FileCollection modulePath = javaModuleDetector.inferModulePath(testIsModule, stableClasspath);
-        return new JvmTestExecutionSpec(getTestFramework(), classpath, modulePath, getCandidateClassFiles(), isScanForTestClasses(), getTestClassesDirs(), getPath(), getIdentityPath(), getForkEvery(), javaForkOptions, getMaxParallelForks(), getPreviousFailedTestClasses(), testIsModule);
+        PreviousTestClassResults previousResults = previousTestClassResults != null ? previousTestClassResults : readPreviousTestClassResults();
+        return new JvmTestExecutionSpec(getTestFramework(), classpath, modulePath, getCandidateClassFiles(), isScanForTestClasses(), getTestClassesDirs(), getPath(), getIdentityPath(), getForkEvery(), javaForkOptions, getMaxParallelForks(), previousResults.failedTestClasses, previousResults.testClassDurations, testClassSelection, createTestClassShard(), testIsModule);
+    }
+
+    /**
+     * Creates the shard of the test classes to run, when the test classes are split into shards. The recorded durations are only read from the
+     * durations file, and not from the previous run, so that all shards split the test classes in the same way.
+     */
+    @Nullable
+    private TestClassShard createTestClassShard() {
+        if (!getShardCount().isPresent()) {
+            return null;
+        }
+        if (!getShardIndex().isPresent()) {
+            throw new InvalidUserDataException("Cannot split the test classes into shards, as no shard index is set.");
+        }
+        int index = getShardIndex().get();
+        int count = getShardCount().get();
+        if (count < 1 || index < 0 || index >= count) {
+            throw new InvalidUserDataException(String.format("Cannot split the test classes into shards, as %s is not a valid shard index for %s shards.", index, count));
+        }
+
+        Map<String, Long> durations = new HashMap<>();
+        File shardDurationsFile = getShardDurationsFile().getAsFile().getOrNull();
+        if (shardDurationsFile != null) {
+            Properties properties = GUtil.loadProperties(shardDurationsFile);
+            for (String testClassName : properties.stringPropertyNames()) {
+                try {
+                    durations.put(testClassName, Long.parseLong(properties.getProperty(testClassName).trim()));
+                } catch (NumberFormatException e) {
+                    throw new InvalidUserDataException(String.format("Cannot read the duration of test class %s from %s.", testClassName, shardDurationsFile), e);
+                }
+            }
+        }
+        getLogger().info("Running shard {} of {} of the test classes.", index, count);
+        return new TestClassShard(index, count, durations);
+    }
+
+    /**
+     * Determines the test classes of the previous run which are not affected by the changes since, and moves the binary results of the previous run
+     * out of the way so that their results can be carried forward.
+     */
+    @Nullable
+    private TestClassSelection selectTestClasses(PreviousTestClassResults previousResults) {
+        File binaryResultsDir = getBinaryResultsDirectory().getAsFile().get();
+        ClassSetSnapshot previousSnapshot = ClassSetSnapshot.read(binaryResultsDir);
+        ClassSetSnapshotter snapshotter = getObjectFactory().newInstance(ClassSetSnapshotter.class);
+        ClassSetSnapshot snapshot = snapshotter.snapshot(getInputs().getProperties(), stableClasspath, getInputs().getFiles(), previousSnapshot);
+        if (snapshot == null) {
+            return null;
+        }
+
+        Set<String> carriedForwardTestClasses = new TestClassSelector().findUnaffectedTestClasses(previousSnapshot, snapshot, previousResults.passedTestClasses);
+        final File previousResultsDir = new File(getTemporaryDir(), PREVIOUS_RESULTS_DIR_NAME);
+        getFileSystemOperations().delete(spec -> spec.delete(previousResultsDir));
+        if (!carriedForwardTestClasses.isEmpty()) {
+            getLogger().info("Carrying forward the results of {} test classes not affected by changes since the previous run.", carriedForwardTestClasses.size());
+            try {
+                FileUtils.moveDirectory(binaryResultsDir, previousResultsDir);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new TestClassSelection(snapshot, binaryResultsDir, carriedForwardTestClasses, previousResultsDir);
     }
 
     private void validateExecutableMatchesToolchain() {
@@ -667,22 +802,51 @@ private void validateExecutableMatchesToolchain() {
                 toolchainExecutable, "toolchain from `javaLauncher` property");
     }
 
-    private Set<String> getPreviousFailedTestClasses() {
+    private PreviousTestClassResults readPreviousTestClassResults() {
         TestResultSerializer serializer = new TestResultSerializer(getBinaryResultsDirectory().getAsFile().get());
+        final PreviousTestClassResults previousResults = new PreviousTestClassResults();
         if (serializer.isHasResults()) {
-            final Set<String> previousFailedTestClasses = new HashSet<String>();
             serializer.read(new Action<TestClassResult>() {
                 @Override
                 public void execute(TestClassResult testClassResult) {
                     if (testClassResult.getFailuresCount() > 0) {
-                        previousFailedTestClasses.add(testClassResult.getClassName());
+                        previousResults.failedTestClasses.add(testClassResult.getClassName());
+                    } else {
+                        previousResults.passedTestClasses.add(testClassResult.getClassName());
                     }
+                    previousResults.testClassDurations.put(testClassResult.getClassName(), testClassResult.getDuration());
                 }
             });
-            return previousFailedTestClasses;
-        } else {
-            return Collections.emptySet();
         }
+        return previousResults;
+    }
+
+    /**
+     * Writes the durations of the test classes executed by this shard, so that they can be used to split the test classes of later runs.
+     */
+    private void writeShardDurations() {
+        File binaryResultsDir = getBinaryResultsDirectory().getAsFile().get();
+        TestResultSerializer serializer = new TestResultSerializer(binaryResultsDir);
+        if (!serializer.isHasResults()) {
+            return;
+        }
+        final Properties durations = new Properties();
+        serializer.read(new Action<TestClassResult>() {
+            @Override
+            public void execute(TestClassResult testClassResult) {
+                durations.setProperty(testClassResult.getClassName(), String.valueOf(testClassResult.getDuration()));
+            }
+        });
+        GUtil.saveProperties(durations, new File(binaryResultsDir, SHARD_DURATIONS_FILE_NAME));
+    }
+
+    /**
+     * The results of the previous run which influence which test classes are executed, the order in which they are executed and the forks they are assigned to.
+     */
+    private static class PreviousTestClassResults {
+        private final Set<String> failedTestClasses = new HashSet<String>();
+        private final Set<String> passedTestClasses = new HashSet<String>();
+        private final Map<String, Long> testClassDurations = new HashMap<String, Long>();
     }
 
     @Override
@@ -708,22 +872,37 @@ public void executeTests() {
         }
         forkOptions.systemProperty(TestWorker.WORKER_TMPDIR_SYS_PROPERTY, new File(getTemporaryDir(), "work"));
 
+        // The previous results are read before selecting test classes, which moves them out of the way
+        previousTestClassResults = readPreviousTestClassResults();
         try {
+            if (getServices().get(InternalOptions.class).getOption(TestingInternalOptions.SELECT_AFFECTED_TEST_CLASSES).get()) {
+                testClassSelection = selectTestClasses(previousTestClassResults);
+            }
             super.executeTests();
         } finally {
+            previousTestClassResults = null;
+            testClassSelection = null;
             CompositeStoppable.stoppable(getTestFramework());
+            if (getShardCount().isPresent()) {
+                writeShardDurations();
+            }
+            final File previousResultsDir = new File(getTemporaryDir(), PREVIOUS_RESULTS_DIR_NAME);
+            if (previousResultsDir.exists()) {
+                getFileSystemOperations().delete(spec -> spec.delete(previousResultsDir));
+            }
         }
     }
 
     @Override
     protected TestExecuter<JvmTestExecutionSpec> createTestExecuter() {
         if (testExecuter == null) {
-            return new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), getModuleRegistry(),
+            return new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), getServices().get(ExecutorFactory.class), getModuleRegistry(),
                 getServices().get(WorkerLeaseService.class),
                 getServices().get(StartParameter.class).getMaxWorkerCount(),
                 getServices().get(Clock.class),
                 getServices().get(DocumentationRegistry.class),
-                (DefaultTestFilter) getFilter());
+                (DefaultTestFilter) getFilter(),
+                getServices().get(InternalOptions.class));
         } else {
             return testExecuter;
         }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+class ClassFileExtractionManagerTest extends Specification {
+    @Rule
+    private TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+    private final TestFile testDir = tmpDir.testDirectory
+
+    def manager = new ClassFileExtractionManager()
+
+    def "reads class file content straight from the library jar"() {
+        given:
+        manager.addLibraryJar(jar("lib1.jar", "com/a/A.class": [1, 2, 3] as byte[]))
+        manager.addLibraryJar(jar("lib2.jar", "com/a/B.class": [4, 5] as byte[], "com/b/C.class": [6] as byte[]))
+
+        expect:
+        manager.getLibraryClassBytes("com/a/A") == [1, 2, 3] as byte[]
+        manager.getLibraryClassBytes("com/a/B") == [4, 5] as byte[]
+        manager.getLibraryClassBytes("com/b/C") == [6] as byte[]
+        testDir.listFiles().collect { it.name } as Set == ["lib1.jar", "lib2.jar"] as Set
+    }
+
+    def "returns null for class which is not in any library jar"() {
+        given:
+        manager.addLibraryJar(jar("lib.jar", "com/a/A.class": [1] as byte[]))
+
+        expect:
+        manager.getLibraryClassBytes("com/a/Missing") == null
+        manager.getLibraryClassBytes("com/missing/A") == null
+        manager.getLibraryClassBytes("Missing") == null
+    }
+
+    private TestFile jar(Map<String, byte[]> entries, String name) {
+        def jarFile = testDir.file(name)
+        new ZipOutputStream(new FileOutputStream(jarFile)).withCloseable { out ->
+            entries.each { path, content ->
+                out.putNextEntry(new ZipEntry(path))
+                out.write(content)
+            }
+        }
+        return jarFile
+    }
+}
@@ -22,6 +22,8 @@ import org.gradle.api.file.FileVisitor
 import org.gradle.api.file.RelativePath
 import org.gradle.api.internal.file.DefaultFileVisitDetails
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -75,6 +77,35 @@ class DefaultTestClassScannerTest extends Specification {
         0 * _._
     }
 
+    void passesClassFilesToTestClassDetectorFromMultipleThreads() {
+        given:
+        def executorFactory = new DefaultExecutorFactory()
+        def processor = Mock(TestClassProcessor)
+        def scanner = new DefaultTestClassScanner(files, detector, processor, executorFactory, 2)
+        def classes = (1..10).collect { stubFileVisitDetails("class$it") }
+        def detectedClass = Stub(TestClassRunInfo)
+        TestClassProcessor detectionProcessor = null
+
+        when:
+        scanner.run()
+
+        then:
+        1 * detector.startDetection(_) >> { args -> detectionProcessor = args[0] }
+        1 * files.visit(_) >> { args ->
+            FileVisitor visitor = args[0]
+            classes.each { visitor.visitFile(it) }
+        }
+        10 * detector.processTestClass(_) >> { args ->
+            detectionProcessor.processTestClass(detectedClass)
+            true
+        }
+        10 * processor.processTestClass(detectedClass)
+        0 * _._
+
+        cleanup:
+        executorFactory.stop()
+    }
+
     FileVisitDetails stubFileVisitDetails(String className) {
         return new DefaultFileVisitDetails(new File("${className}.class"), new RelativePath(false, "${className}.class"), null, null, null)
     }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.test.fixtures.file.WorkspaceTest
+
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
+
+class CarryForwardTestClassProcessorTest extends WorkspaceTest {
+    def delegate = Mock(TestClassProcessor)
+    def resultProcessor = Mock(TestResultProcessor)
+
+    def setup() {
+        def fooTest = new TestClassResult(1, 'FooTest', 1000)
+        fooTest.add(new TestMethodResult(1, 'ok', TestResult.ResultType.SUCCESS, 100, 1200))
+        def nestedTest = new TestClassResult(2, 'FooTest$Nested', 2000)
+        nestedTest.add(new TestMethodResult(2, 'nested', TestResult.ResultType.SKIPPED, 0, 2000))
+        def barTest = new TestClassResult(3, 'BarTest', 3000)
+        barTest.add(new TestMethodResult(3, 'ok', TestResult.ResultType.SUCCESS, 100, 3200))
+        new TestResultSerializer(testDirectory).write([fooTest, nestedTest, barTest])
+
+        def writer = new TestOutputStore(testDirectory).writer()
+        writer.onOutput(1, 1, new DefaultTestOutputEvent(StdOut, "[out]"))
+        writer.close()
+    }
+
+    def "does not run carried forward test classes"() {
+        def processor = new CarryForwardTestClassProcessor(['FooTest'] as Set, testDirectory, delegate)
+        def fooTest = testClass('FooTest')
+        def barTest = testClass('BarTest')
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(fooTest)
+        processor.processTestClass(barTest)
+
+        then:
+        1 * delegate.startProcessing(resultProcessor)
+        1 * delegate.processTestClass(barTest)
+        0 * _
+    }
+
+    def "reports previous results of carried forward test classes after the other test classes completed"() {
+        def processor = new CarryForwardTestClassProcessor(['FooTest'] as Set, testDirectory, delegate)
+        def classIds = [:]
+        def testIds = [:]
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(testClass('FooTest'))
+
+        when:
+        processor.stop()
+
+        then:
+        1 * delegate.stop()
+
+        then:
+        1 * resultProcessor.started({ it.composite && it.className == 'FooTest' }, { it.startTime == 1000 }) >> { args -> classIds.FooTest = args[0].id }
+        1 * resultProcessor.started({ !it.composite && it.className == 'FooTest' && it.name == 'ok' }, { it.startTime == 1100 && it.parentId == classIds.FooTest }) >> { args -> testIds.ok = args[0].id }
+        1 * resultProcessor.output({ it == testIds.ok }, { it.destination == StdOut && it.message == '[out]' })
+        1 * resultProcessor.completed({ it == testIds.ok }, { it.endTime == 1200 && it.resultType == TestResult.ResultType.SUCCESS })
+        1 * resultProcessor.completed({ it == classIds.FooTest }, { it.endTime == 1200 })
+        1 * resultProcessor.started({ it.composite && it.className == 'FooTest$Nested' }, _) >> { args -> classIds.Nested = args[0].id }
+        1 * resultProcessor.started({ !it.composite && it.name == 'nested' }, { it.parentId == classIds.Nested }) >> { args -> testIds.nested = args[0].id }
+        1 * resultProcessor.completed({ it == testIds.nested }, { it.resultType == TestResult.ResultType.SKIPPED })
+        1 * resultProcessor.completed({ it == classIds.Nested }, _)
+        0 * _
+    }
+
+    def "does not report previous results of nested classes which were run"() {
+        def processor = new CarryForwardTestClassProcessor(['FooTest'] as Set, testDirectory, delegate)
+        def nestedTest = testClass('FooTest$Nested')
+        processor.startProcessing(resultProcessor)
+
+        when:
+        processor.processTestClass(testClass('FooTest'))
+        processor.processTestClass(nestedTest)
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(nestedTest)
+        1 * delegate.stop()
+        1 * resultProcessor.started({ it.composite && it.className == 'FooTest' }, _)
+        1 * resultProcessor.started({ !it.composite && it.className == 'FooTest' }, _)
+        0 * resultProcessor.started({ it.className == 'FooTest$Nested' }, _)
+    }
+
+    def "does not report previous results after stopNow"() {
+        def processor = new CarryForwardTestClassProcessor(['FooTest'] as Set, testDirectory, delegate)
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(testClass('FooTest'))
+
+        when:
+        processor.stopNow()
+        processor.stop()
+
+        then:
+        1 * delegate.stopNow()
+        1 * delegate.stop()
+        0 * resultProcessor._
+    }
+
+    TestClassRunInfo testClass(String name) {
+        return Stub(TestClassRunInfo) {
+            getTestClassName() >> name
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection
+
+import org.gradle.internal.hash.TestHashCodes
+import spock.lang.Specification
+
+class ClassReferencesVisitorTest extends Specification {
+
+    def "collects super types and referenced classes"() {
+        when:
+        def snapshot = analyze(ArrayList)
+
+        then:
+        snapshot.referencedClasses.containsAll(['java.util.AbstractList', 'java.util.RandomAccess', 'java.util.Arrays', 'java.util.Collection'])
+        !snapshot.referencedClasses.contains('java.util.ArrayList')
+        !snapshot.declaresConstants
+    }
+
+    def "detects classes declaring constants"() {
+        expect:
+        analyze(Integer).declaresConstants
+    }
+
+    private static ClassSnapshot analyze(Class<?> type) {
+        def classFile = ClassLoader.getSystemResourceAsStream(type.name.replace('.', '/') + ".class").bytes
+        return ClassReferencesVisitor.analyze(classFile, TestHashCodes.hashCodeFrom(1))
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection
+
+import org.gradle.internal.hash.TestHashCodes
+import spock.lang.Specification
+
+class TestClassSelectorTest extends Specification {
+    def selector = new TestClassSelector()
+
+    def "selects no test classes without previous snapshot"() {
+        def current = snapshot(1, [FooTest: classSnapshot(1, ['Foo'])])
+
+        expect:
+        selector.findUnaffectedTestClasses(null, current, ['FooTest'] as Set).empty
+    }
+
+    def "selects no test classes when configuration changed"() {
+        def classes = [FooTest: classSnapshot(1, ['Foo']), Foo: classSnapshot(2, [])]
+
+        expect:
+        selector.findUnaffectedTestClasses(snapshot(1, classes), snapshot(2, classes), ['FooTest'] as Set).empty
+    }
+
+    def "selects test classes which do not transitively reference changed classes"() {
+        def previous = snapshot(1, [
+            FooTest: classSnapshot(1, ['Foo']),
+            BarTest: classSnapshot(2, ['Bar']),
+            Foo: classSnapshot(3, ['Util']),
+            Bar: classSnapshot(4, []),
+            Util: classSnapshot(5, [])
+        ])
+        def current = snapshot(1, [
+            FooTest: classSnapshot(1, ['Foo']),
+            BarTest: classSnapshot(2, ['Bar']),
+            Foo: classSnapshot(3, ['Util']),
+            Bar: classSnapshot(4, []),
+            Util: classSnapshot(6, [])
+        ])
+
+        expect:
+        selector.findUnaffectedTestClasses(previous, current, ['FooTest', 'BarTest'] as Set) == ['BarTest'] as Set
+    }
+
+    def "test classes referencing added or removed classes are affected"() {
+        def previous = snapshot(1, [
+            FooTest: classSnapshot(1, ['Foo']),
+            BarTest: classSnapshot(2, ['Bar']),
+            BazTest: classSnapshot(3, []),
+            Foo: classSnapshot(4, [])
+        ])
+        def current = snapshot(1, [
+            FooTest: classSnapshot(1, ['Foo']),
+            BarTest: classSnapshot(2, ['Bar']),
+            BazTest: classSnapshot(3, []),
+            Bar: classSnapshot(5, [])
+        ])
+
+        expect:
+        selector.findUnaffectedTestClasses(previous, current, ['FooTest', 'BarTest', 'BazTest'] as Set) == ['BazTest'] as Set
+    }
+
+    def "changed test classes and removed test classes are not selected"() {
+        def previous = snapshot(1, [FooTest: classSnapshot(1, []), BarTest: classSnapshot(2, []), BazTest: classSnapshot(3, [])])
+        def current = snapshot(1, [FooTest: classSnapshot(4, []), BarTest: classSnapshot(2, [])])
+
+        expect:
+        selector.findUnaffectedTestClasses(previous, current, ['FooTest', 'BarTest', 'BazTest'] as Set) == ['BarTest'] as Set
+    }
+
+    def "selects no test classes when a changed class declares constants"() {
+        def previous = snapshot(1, [FooTest: classSnapshot(1, []), Constants: classSnapshot(2, [], true)])
+        def current = snapshot(1, [FooTest: classSnapshot(1, []), Constants: classSnapshot(3, [], true)])
+
+        expect:
+        selector.findUnaffectedTestClasses(previous, current, ['FooTest'] as Set).empty
+    }
+
+    private static ClassSetSnapshot snapshot(int configurationHash, Map<String, ClassSnapshot> classes) {
+        return new ClassSetSnapshot(TestHashCodes.hashCodeFrom(configurationHash), classes)
+    }
+
+    private static ClassSnapshot classSnapshot(int hash, List<String> referencedClasses, boolean declaresConstants = false) {
+        return new ClassSnapshot(TestHashCodes.hashCodeFrom(hash), referencedClasses as Set, declaresConstants)
+    }
+}